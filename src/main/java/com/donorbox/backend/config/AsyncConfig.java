@@ -0,0 +1,108 @@
+package com.donorbox.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    @Value("${app.email.executor.pool-size:4}")
+    private int emailPoolSize;
+
+    @Value("${app.email.executor.queue-capacity:500}")
+    private int emailQueueCapacity;
+
+    @Value("${app.image.executor.pool-size:2}")
+    private int imagePoolSize;
+
+    @Value("${app.image.executor.queue-capacity:200}")
+    private int imageQueueCapacity;
+
+    @Value("${app.upload.executor.pool-size:4}")
+    private int uploadPoolSize;
+
+    @Value("${app.upload.executor.queue-capacity:100}")
+    private int uploadQueueCapacity;
+
+    @Value("${app.media.deletion.pool-size:1}")
+    private int deletionPoolSize;
+
+    @Value("${app.media.deletion.queue-capacity:1000}")
+    private int deletionQueueCapacity;
+
+    /**
+     * Bounded executor for outgoing mail. When the queue is full the submitting
+     * thread sends the email itself, which throttles producers instead of dropping mail.
+     */
+    @Bean(name = "emailTaskExecutor")
+    public ThreadPoolTaskExecutor emailTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(emailPoolSize);
+        executor.setMaxPoolSize(emailPoolSize);
+        executor.setQueueCapacity(emailQueueCapacity);
+        executor.setThreadNamePrefix("email-sender-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        return executor;
+    }
+
+    /**
+     * Bounded executor for image variant generation. Decoding is CPU and memory heavy, so the
+     * pool stays small; when the queue is full submissions are rejected and the missing
+     * variants are generated on first request instead.
+     */
+    @Bean(name = "imageTaskExecutor")
+    public ThreadPoolTaskExecutor imageTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(imagePoolSize);
+        executor.setMaxPoolSize(imagePoolSize);
+        executor.setQueueCapacity(imageQueueCapacity);
+        executor.setThreadNamePrefix("image-variant-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+
+    /**
+     * Bounded executor for writing the files of multi-file uploads in parallel. Work is mostly
+     * disk and hashing, so a few threads are enough; when the queue is full the request thread
+     * stores the file itself.
+     */
+    @Bean(name = "uploadTaskExecutor")
+    public ThreadPoolTaskExecutor uploadTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(uploadPoolSize);
+        executor.setMaxPoolSize(uploadPoolSize);
+        executor.setQueueCapacity(uploadQueueCapacity);
+        executor.setThreadNamePrefix("upload-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        return executor;
+    }
+
+    /**
+     * Bounded executor for deleting media after the transaction that dropped it has committed.
+     * One thread keeps slow storage from being hammered; when the queue is full the submitting
+     * thread deletes the batch itself.
+     */
+    @Bean(name = "mediaDeletionExecutor")
+    public ThreadPoolTaskExecutor mediaDeletionExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(deletionPoolSize);
+        executor.setMaxPoolSize(deletionPoolSize);
+        executor.setQueueCapacity(deletionQueueCapacity);
+        executor.setThreadNamePrefix("media-delete-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
@@ -15,6 +15,12 @@ import java.io.IOException;
 @Slf4j
 public class CorsFilter implements Filter {
 
+    // Request/response headers of the resumable upload protocol (/api/uploads)
+    private static final String RESUMABLE_UPLOAD_HEADERS = "Tus-Resumable, Upload-Offset, Upload-Length";
+
+    // Page metadata of the public blog listings
+    private static final String LISTING_HEADERS = "X-Total-Count, Link";
+
     @Override
     public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain)
             throws IOException, ServletException {
@@ -68,12 +74,12 @@ public class CorsFilter implements Filter {
         // Development mode → allow all
         if (!"production".equals(activeProfile) && !"prod".equals(activeProfile)) {
             response.setHeader("Access-Control-Allow-Origin", "*");
-            response.setHeader("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
+            response.setHeader("Access-Control-Allow-Methods", "GET, HEAD, POST, PUT, PATCH, DELETE, OPTIONS");
             response.setHeader("Access-Control-Allow-Headers",
-                    "Origin, Content-Type, Accept, Authorization, X-Requested-With, Cache-Control");
+                    "Origin, Content-Type, Accept, Authorization, X-Requested-With, Cache-Control, " + RESUMABLE_UPLOAD_HEADERS);
             response.setHeader("Access-Control-Allow-Credentials", "true");
             response.setHeader("Access-Control-Max-Age", "3600");
-            response.setHeader("Access-Control-Expose-Headers", "Access-Control-Allow-Origin");
+            response.setHeader("Access-Control-Expose-Headers", "Access-Control-Allow-Origin, Location, " + RESUMABLE_UPLOAD_HEADERS + ", " + LISTING_HEADERS);
             log.info("CORS Filter - Development mode: Allowing all origins for: {}", requestURI);
         } else {
             // Production → strict
@@ -104,7 +110,7 @@ public class CorsFilter implements Filter {
         if (allowedMethods != null && !allowedMethods.trim().isEmpty()) {
             response.setHeader("Access-Control-Allow-Methods", allowedMethods);
         } else {
-            response.setHeader("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
+            response.setHeader("Access-Control-Allow-Methods", "GET, HEAD, POST, PUT, PATCH, DELETE, OPTIONS");
         }
 
         // Allowed headers
@@ -112,11 +118,11 @@ public class CorsFilter implements Filter {
             response.setHeader("Access-Control-Allow-Headers", allowedHeaders);
         } else {
             response.setHeader("Access-Control-Allow-Headers",
-                    "Origin, Content-Type, Accept, Authorization, X-Requested-With, Cache-Control");
+                    "Origin, Content-Type, Accept, Authorization, X-Requested-With, Cache-Control, " + RESUMABLE_UPLOAD_HEADERS);
         }
 
         response.setHeader("Access-Control-Max-Age", "3600");
-        response.setHeader("Access-Control-Expose-Headers", "Access-Control-Allow-Origin");
+        response.setHeader("Access-Control-Expose-Headers", "Access-Control-Allow-Origin, Location, " + RESUMABLE_UPLOAD_HEADERS + ", " + LISTING_HEADERS);
 
         // Special admin endpoints
         if (requestURI.startsWith("/admin/")) {
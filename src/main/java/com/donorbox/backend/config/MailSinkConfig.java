@@ -0,0 +1,46 @@
+package com.donorbox.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.net.InetAddress;
+import java.util.Properties;
+
+/**
+ * Local mail stand-in: starts an embedded SMTP sink and points the mail sender at it.
+ * Activate with the "mail-sink" profile; production SMTP settings are never touched.
+ */
+@Configuration
+@Profile("mail-sink")
+public class MailSinkConfig {
+
+    @Value("${app.mail.sink.port:2525}")
+    private int sinkPort;
+
+    @Value("${app.mail.sink.latency-ms:0}")
+    private long latencyMs;
+
+    @Value("${app.mail.sink.latency-jitter-ms:0}")
+    private long latencyJitterMs;
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public SmtpSinkServer smtpSinkServer() {
+        return new SmtpSinkServer(sinkPort, latencyMs, latencyJitterMs);
+    }
+
+    @Bean
+    public TimedJavaMailSender javaMailSender(SmtpSinkServer smtpSinkServer) {
+        TimedJavaMailSender sender = new TimedJavaMailSender();
+        sender.setHost(InetAddress.getLoopbackAddress().getHostAddress());
+        sender.setPort(smtpSinkServer.getPort());
+
+        Properties props = sender.getJavaMailProperties();
+        props.put("mail.smtp.auth", "false");
+        props.put("mail.smtp.starttls.enable", "false");
+        props.put("mail.smtp.connectiontimeout", "5000");
+        props.put("mail.smtp.timeout", "10000");
+        return sender;
+    }
+}
@@ -0,0 +1,186 @@
+package com.donorbox.backend.config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Minimal in-process SMTP server that accepts every message and discards it after counting.
+ * Used by the mail-sink profile so the email pipeline can be exercised without a real mail server.
+ * Latency can be injected per message to mimic a slow upstream relay.
+ */
+@Slf4j
+public class SmtpSinkServer {
+
+    private final int port;
+    private final long latencyMs;
+    private final long latencyJitterMs;
+
+    private final AtomicLong messagesAccepted = new AtomicLong();
+    private final AtomicLong bytesAccepted = new AtomicLong();
+    private final AtomicLong connectionsAccepted = new AtomicLong();
+    private final AtomicInteger threadCounter = new AtomicInteger();
+
+    private ServerSocket serverSocket;
+    private ExecutorService connectionPool;
+    private Thread acceptThread;
+    private volatile boolean running;
+
+    public SmtpSinkServer(int port, long latencyMs, long latencyJitterMs) {
+        this.port = port;
+        this.latencyMs = latencyMs;
+        this.latencyJitterMs = latencyJitterMs;
+    }
+
+    public void start() throws IOException {
+        serverSocket = new ServerSocket(port, 200, InetAddress.getLoopbackAddress());
+        connectionPool = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "smtp-sink-" + threadCounter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        running = true;
+
+        acceptThread = new Thread(this::acceptLoop, "smtp-sink-acceptor");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+
+        log.info("SMTP sink listening on {}:{} (latency {}ms +/- {}ms)",
+                serverSocket.getInetAddress().getHostAddress(), getPort(), latencyMs, latencyJitterMs);
+    }
+
+    public void stop() {
+        running = false;
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+        } catch (IOException e) {
+            log.warn("Error closing SMTP sink socket", e);
+        }
+        if (connectionPool != null) {
+            connectionPool.shutdownNow();
+        }
+        log.info("SMTP sink stopped after accepting {} messages", messagesAccepted.get());
+    }
+
+    public int getPort() {
+        return serverSocket != null ? serverSocket.getLocalPort() : port;
+    }
+
+    public long getMessagesAccepted() {
+        return messagesAccepted.get();
+    }
+
+    public long getBytesAccepted() {
+        return bytesAccepted.get();
+    }
+
+    public long getConnectionsAccepted() {
+        return connectionsAccepted.get();
+    }
+
+    public void resetCounters() {
+        messagesAccepted.set(0);
+        bytesAccepted.set(0);
+        connectionsAccepted.set(0);
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                connectionsAccepted.incrementAndGet();
+                connectionPool.execute(() -> handleConnection(socket));
+            } catch (SocketException e) {
+                if (running) {
+                    log.error("SMTP sink accept failed", e);
+                }
+            } catch (IOException e) {
+                log.error("SMTP sink accept failed", e);
+            }
+        }
+    }
+
+    private void handleConnection(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             OutputStream out = socket.getOutputStream()) {
+
+            reply(out, "220 smtp-sink ESMTP ready");
+
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase(Locale.ROOT) : line.toUpperCase(Locale.ROOT);
+                switch (command) {
+                    case "EHLO" -> reply(out, "250-smtp-sink\r\n250-8BITMIME\r\n250 SIZE 104857600");
+                    case "HELO" -> reply(out, "250 smtp-sink");
+                    case "MAIL", "RCPT", "RSET", "NOOP" -> reply(out, "250 OK");
+                    case "DATA" -> {
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        long size = readData(in);
+                        injectLatency();
+                        messagesAccepted.incrementAndGet();
+                        bytesAccepted.addAndGet(size);
+                        reply(out, "250 OK queued");
+                    }
+                    case "QUIT" -> {
+                        reply(out, "221 Bye");
+                        return;
+                    }
+                    default -> reply(out, "502 Command not implemented");
+                }
+            }
+        } catch (IOException e) {
+            if (running) {
+                log.debug("SMTP sink connection closed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private long readData(BufferedReader in) throws IOException {
+        long size = 0;
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (".".equals(line)) {
+                break;
+            }
+            size += line.length() + 2;
+        }
+        return size;
+    }
+
+    private void injectLatency() {
+        long delay = latencyMs;
+        if (latencyJitterMs > 0) {
+            delay += ThreadLocalRandom.current().nextLong(-latencyJitterMs, latencyJitterMs + 1);
+        }
+        if (delay <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void reply(OutputStream out, String response) throws IOException {
+        out.write((response + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+}
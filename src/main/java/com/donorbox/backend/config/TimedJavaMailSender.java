@@ -0,0 +1,66 @@
+package com.donorbox.backend.config;
+
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.mail.MailException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * JavaMailSender that records client-side send latency (connect, SMTP dialogue and transfer)
+ * into a fixed-size ring buffer, so percentiles can be reported without unbounded memory.
+ */
+public class TimedJavaMailSender extends JavaMailSenderImpl {
+
+    private static final int SAMPLE_CAPACITY = 1 << 16;
+
+    private final long[] samples = new long[SAMPLE_CAPACITY];
+    private final AtomicLong sampleCount = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    @Override
+    protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) throws MailException {
+        long start = System.nanoTime();
+        try {
+            super.doSend(mimeMessages, originalMessages);
+        } catch (MailException e) {
+            failures.incrementAndGet();
+            throw e;
+        } finally {
+            long perMessage = (System.nanoTime() - start) / Math.max(1, mimeMessages.length);
+            for (int i = 0; i < mimeMessages.length; i++) {
+                long slot = sampleCount.getAndIncrement();
+                samples[(int) (slot & (SAMPLE_CAPACITY - 1))] = perMessage;
+            }
+        }
+    }
+
+    public long getSentCount() {
+        return sampleCount.get() - failures.get();
+    }
+
+    public long getFailureCount() {
+        return failures.get();
+    }
+
+    /**
+     * Latency percentile in milliseconds over the most recent samples
+     * @param percentile value between 0 and 100
+     */
+    public double getLatencyPercentileMs(double percentile) {
+        int size = (int) Math.min(sampleCount.get(), SAMPLE_CAPACITY);
+        if (size == 0) {
+            return 0.0;
+        }
+        long[] snapshot = Arrays.copyOf(samples, size);
+        Arrays.sort(snapshot);
+        int index = (int) Math.ceil(percentile / 100.0 * size) - 1;
+        return snapshot[Math.max(0, Math.min(index, size - 1))] / 1_000_000.0;
+    }
+
+    public void resetStats() {
+        sampleCount.set(0);
+        failures.set(0);
+    }
+}
@@ -0,0 +1,108 @@
+package com.donorbox.backend.config;
+
+import com.donorbox.backend.service.UploadAdmissionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Runs the upload admission check on upload requests before anything reads their body, and holds
+ * the admitted upload's share of the limits until the request completes. Ordered after the
+ * security filters, so unauthenticated requests never take a slot. Clients are keyed by the
+ * remote address, which the container resolves from X-Forwarded-For behind a trusted proxy.
+ * Upload requests are multipart POST, PUT and PATCH requests under /api/ and /admin/ (the admin
+ * cause, event and blog forms carry the largest files), and resumable upload requests.
+ */
+@Component
+@RequiredArgsConstructor
+public class UploadAdmissionFilter extends OncePerRequestFilter {
+
+    private final UploadAdmissionService uploadAdmissionService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.upload.admission.retry-after-seconds:5}")
+    private int retryAfterSeconds;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        if (!"POST".equals(method) && !"PUT".equals(method) && !"PATCH".equals(method)) {
+            return true;
+        }
+        String uri = request.getRequestURI();
+        String contentType = request.getContentType();
+        boolean multipart = contentType != null && contentType.toLowerCase().startsWith("multipart/");
+        if (uri.startsWith("/admin/")) {
+            return !multipart;
+        }
+        return !uri.startsWith("/api/") || !(multipart || uri.startsWith("/api/uploads/"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        UploadAdmissionService.Admission admission = uploadAdmissionService.admit(
+                categoryOf(request.getRequestURI()), request.getRemoteAddr(), request.getContentLengthLong());
+        if (!admission.isAdmitted()) {
+            reject(response, admission);
+            return;
+        }
+        try (admission) {
+            chain.doFilter(request, response);
+        }
+    }
+
+    private void reject(HttpServletResponse response, UploadAdmissionService.Admission admission) throws IOException {
+        HttpStatus status = admission.getRejectedWith();
+        Map<String, String> body = new HashMap<>();
+        if (status == HttpStatus.TOO_MANY_REQUESTS) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            body.put("error", "Too many uploads in progress");
+        } else {
+            body.put("error", "Insufficient storage");
+        }
+        body.put("message", admission.getReason());
+
+        // The body is left unread; close the connection rather than draining it
+        response.setHeader(HttpHeaders.CONNECTION, "close");
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    /**
+     * Category an upload URI stores into, from its path (the category of multipart uploads to
+     * /api/upload-media and /api/upload-image is in the body, which is not read here). Admin
+     * forms store into the resource they edit, e.g. /admin/causes/with-video into causes.
+     */
+    static String categoryOf(String uri) {
+        if (uri.startsWith("/admin/")) {
+            return uri.substring("/admin/".length()).split("/")[0];
+        }
+        String[] segments = uri.substring("/api/".length()).split("/");
+        String first = segments[0];
+        if ("uploads".equals(first)) {
+            return "resumable";
+        }
+        if (("media".equals(first) || "upload-stream".equals(first)) && segments.length > 1) {
+            return segments[1];
+        }
+        if (first.startsWith("upload")) {
+            return "general";
+        }
+        return first;
+    }
+}
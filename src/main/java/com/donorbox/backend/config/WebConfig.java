@@ -1,16 +1,27 @@
 package com.donorbox.backend.config;
 
+import com.donorbox.backend.service.UploadPathResolver;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.AbstractResourceResolver;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
 
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
 
 @Configuration
+@RequiredArgsConstructor
 public class WebConfig implements WebMvcConfigurer {
 
+    private final UploadPathResolver uploadPathResolver;
+
     @Value("${app.upload.dir:uploads}")
     private String uploadDir;
 
@@ -19,32 +30,44 @@ public class WebConfig implements WebMvcConfigurer {
         // Serve uploaded images as static content
         registry.addResourceHandler("/api/images/**")//causes,event image access,blog
                 .addResourceLocations("file:" + Paths.get(uploadDir).toAbsolutePath().toString() + "/")
-                .setCachePeriod(3600); // Cache for 1 hour
+                .setCachePeriod(3600) // Cache for 1 hour
+                .resourceChain(false)
+                .addResolver(new ShardedUploadResolver());
         
         // Serve uploaded documents as static content
         registry.addResourceHandler("/api/documents/**")
                 .addResourceLocations("file:" + Paths.get(uploadDir).toAbsolutePath().toString() + "/")
-                .setCachePeriod(3600); // Cache for 1 hour
+                .setCachePeriod(3600) // Cache for 1 hour
+                .resourceChain(false)
+                .addResolver(new ShardedUploadResolver());
         
         // Serve uploaded media (videos) as static content
         registry.addResourceHandler("/api/media/**")
                 .addResourceLocations("file:" + Paths.get(uploadDir).toAbsolutePath().toString() + "/")
-                .setCachePeriod(3600); // Cache for 1 hour
+                .setCachePeriod(3600) // Cache for 1 hour
+                .resourceChain(false)
+                .addResolver(new ShardedUploadResolver());
         
         // Serve causes folder specifically for video access
         registry.addResourceHandler("/api/causes/**")
                 .addResourceLocations("file:" + Paths.get(uploadDir).toAbsolutePath().toString() + "/")
-                .setCachePeriod(3600); // Cache for 1 hour
+                .setCachePeriod(3600) // Cache for 1 hour
+                .resourceChain(false)
+                .addResolver(new ShardedUploadResolver());
         
         // Serve personal-causes files as static content
         registry.addResourceHandler("/personal-causes/**")
                 .addResourceLocations("file:" + Paths.get(uploadDir).toAbsolutePath().toString() + "/")
-                .setCachePeriod(3600); // Cache for 1 hour
+                .setCachePeriod(3600) // Cache for 1 hour
+                .resourceChain(false)
+                .addResolver(new ShardedUploadResolver());
         
         // Serve uploads folder directly
         registry.addResourceHandler("/uploads/**")
                 .addResourceLocations("file:" + Paths.get(uploadDir).toAbsolutePath().toString() + "/")
-                .setCachePeriod(3600); // Cache for 1 hour
+                .setCachePeriod(3600) // Cache for 1 hour
+                .resourceChain(false)
+                .addResolver(new ShardedUploadResolver());
     }
 
     @Override
@@ -79,4 +102,28 @@ public class WebConfig implements WebMvcConfigurer {
             System.out.println("INFO: Using localhost CORS fallback for local development.");
         }
     }
+
+    /**
+     * Finds category/filename requests under their hash-prefix shard, as uploads are stored sharded
+     */
+    private class ShardedUploadResolver extends AbstractResourceResolver {
+
+        @Override
+        protected Resource resolveResourceInternal(HttpServletRequest request, String requestPath,
+                                                   List<? extends Resource> locations, ResourceResolverChain chain) {
+            Resource resource = chain.resolveResource(request, requestPath, locations);
+            if (resource != null || requestPath.split("/").length != 2) {
+                return resource;
+            }
+            Path sharded = uploadPathResolver.shardedPath(requestPath);
+            String shardedPath = uploadPathResolver.root().relativize(sharded).toString().replace('\\', '/');
+            return chain.resolveResource(request, shardedPath, locations);
+        }
+
+        @Override
+        protected String resolveUrlPathInternal(String resourceUrlPath, List<? extends Resource> locations,
+                                                ResourceResolverChain chain) {
+            return chain.resolveUrlPath(resourceUrlPath, locations);
+        }
+    }
 }
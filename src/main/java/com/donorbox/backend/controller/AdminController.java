@@ -8,6 +8,7 @@ import com.donorbox.backend.dto.PersonalCauseSubmissionResponse;
 import com.donorbox.backend.dto.SubmissionActionRequest;
 import com.donorbox.backend.dto.CauseRequest;
 import com.donorbox.backend.dto.CauseResponse;
+import com.donorbox.backend.dto.MediaObjectResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -17,9 +18,12 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -54,6 +58,13 @@ public class AdminController {
     private final DonationService donationService;
     private final EmailService emailService;
     private final DonationStatusMonitoringService monitoringService;
+    private final HotMediaCache hotMediaCache;
+    private final UploadShardMigrationService uploadShardMigrationService;
+    private final UploadAdmissionService uploadAdmissionService;
+    private final MediaCatalogService mediaCatalogService;
+    private final OrphanMediaCollectionService orphanMediaCollectionService;
+    private final MediaDeletionService mediaDeletionService;
+    private final SubmissionArchiveService submissionArchiveService;
 
     @Value("${admin.email}")
     private String adminEmail;
@@ -271,6 +282,8 @@ public ResponseEntity<CauseResponse> createCause(@Valid @RequestBody CauseReques
         try {
             // Get existing cause
             Cause existingCause = causeService.getCauseEntityById(id);
+            // Media replaced below, deleted once the update has been saved
+            List<String> replacedMedia = new ArrayList<>();
 
             // Update fields if provided
             if (title != null) existingCause.setTitle(title);
@@ -285,15 +298,6 @@ public ResponseEntity<CauseResponse> createCause(@Valid @RequestBody CauseReques
 
             // Handle video uploads if provided
             if (videos != null && !videos.isEmpty()) {
-                // Delete old videos if exist
-                if (existingCause.getVideoUrls() != null) {
-                    for (String oldVideoUrl : existingCause.getVideoUrls()) {
-                        if (oldVideoUrl != null) {
-                            mediaUploadService.deleteMedia(oldVideoUrl);
-                        }
-                    }
-                }
-
                 List<String> videoUrls = new ArrayList<>();
                 
                 for (MultipartFile video : videos) {
@@ -306,11 +310,15 @@ public ResponseEntity<CauseResponse> createCause(@Valid @RequestBody CauseReques
                 
                 if (!videoUrls.isEmpty()) {
                     existingCause.setMediaType(Cause.MediaType.VIDEO);
+                    if (existingCause.getVideoUrls() != null) {
+                        replacedMedia.addAll(existingCause.getVideoUrls());
+                    }
                 existingCause.setVideoUrls(videoUrls);
                 }
             }
 
             Cause updatedCause = causeService.updateCause(id, existingCause);
+            mediaDeletionService.deleteAfterCommit(replacedMedia);
             return ResponseEntity.ok(updatedCause);
 
         } catch (IOException e) {
@@ -465,6 +473,8 @@ public ResponseEntity<CauseResponse> createCause(@Valid @RequestBody CauseReques
         try {
             // Get existing cause
             Cause existingCause = causeService.getCauseEntityById(id);
+            // Media replaced below, deleted once the update has been saved
+            List<String> replacedMedia = new ArrayList<>();
             
             // Update fields if provided
             if (title != null) existingCause.setTitle(title);
@@ -479,15 +489,6 @@ public ResponseEntity<CauseResponse> createCause(@Valid @RequestBody CauseReques
             
             // Handle image uploads if provided
             if (images != null && !images.isEmpty()) {
-                // Delete old images if exist
-                if (existingCause.getImageUrls() != null) {
-                    for (String oldImageUrl : existingCause.getImageUrls()) {
-                        if (oldImageUrl != null) {
-                            imageUploadService.deleteImage(oldImageUrl);
-                        }
-                    }
-                }
-                
                 List<String> imageUrls = new ArrayList<>();
                 
                 for (MultipartFile image : images) {
@@ -499,11 +500,15 @@ public ResponseEntity<CauseResponse> createCause(@Valid @RequestBody CauseReques
                 }
                 
                 if (!imageUrls.isEmpty()) {
+                    if (existingCause.getImageUrls() != null) {
+                        replacedMedia.addAll(existingCause.getImageUrls());
+                    }
                 existingCause.setImageUrls(imageUrls);
                 }
             }
             
             Cause updatedCause = causeService.updateCause(id, existingCause);
+            mediaDeletionService.deleteAfterCommit(replacedMedia);
             return ResponseEntity.ok(updatedCause);
             
         } catch (IOException e) {
@@ -625,6 +630,8 @@ public ResponseEntity<CauseResponse> createCause(@Valid @RequestBody CauseReques
         try {
             // Get existing cause
             Cause existingCause = causeService.getCauseEntityById(id);
+            // Media replaced below, deleted once the update has been saved
+            List<String> replacedMedia = new ArrayList<>();
 
             // Update fields if provided
             if (title != null) existingCause.setTitle(title);
@@ -639,15 +646,6 @@ public ResponseEntity<CauseResponse> createCause(@Valid @RequestBody CauseReques
 
             // Handle image uploads if provided
             if (images != null && !images.isEmpty()) {
-                // Delete old images if exist
-                if (existingCause.getImageUrls() != null) {
-                    for (String oldImageUrl : existingCause.getImageUrls()) {
-                        if (oldImageUrl != null) {
-                            mediaUploadService.deleteMedia(oldImageUrl);
-                        }
-                    }
-                }
-
                 List<String> imageUrls = new ArrayList<>();
                 
                 for (MultipartFile image : images) {
@@ -659,21 +657,15 @@ public ResponseEntity<CauseResponse> createCause(@Valid @RequestBody CauseReques
                 }
                 
                 if (!imageUrls.isEmpty()) {
+                    if (existingCause.getImageUrls() != null) {
+                        replacedMedia.addAll(existingCause.getImageUrls());
+                    }
                     existingCause.setImageUrls(imageUrls);
                 }
             }
 
             // Handle video uploads if provided
             if (videos != null && !videos.isEmpty()) {
-                // Delete old videos if exist
-                if (existingCause.getVideoUrls() != null) {
-                    for (String oldVideoUrl : existingCause.getVideoUrls()) {
-                        if (oldVideoUrl != null) {
-                            mediaUploadService.deleteMedia(oldVideoUrl);
-                        }
-                    }
-                }
-
                 List<String> videoUrls = new ArrayList<>();
                 
                 for (MultipartFile video : videos) {
@@ -685,6 +677,9 @@ public ResponseEntity<CauseResponse> createCause(@Valid @RequestBody CauseReques
                 }
                 
                 if (!videoUrls.isEmpty()) {
+                    if (existingCause.getVideoUrls() != null) {
+                        replacedMedia.addAll(existingCause.getVideoUrls());
+                    }
                     existingCause.setVideoUrls(videoUrls);
                 }
             }
@@ -701,6 +696,7 @@ public ResponseEntity<CauseResponse> createCause(@Valid @RequestBody CauseReques
             }
 
             Cause updatedCause = causeService.updateCause(id, existingCause);
+            mediaDeletionService.deleteAfterCommit(replacedMedia);
             return ResponseEntity.ok(updatedCause);
 
         } catch (IOException e) {
@@ -805,18 +801,16 @@ public ResponseEntity<CauseResponse> createCause(@Valid @RequestBody CauseReques
                 existingEvent.setStatus(Event.EventStatus.valueOf(status.toUpperCase()));
             }
             
-            // Handle image upload if provided (only one image)
+            // Handle image upload if provided (only one image); the old one is deleted once the update has been saved
+            String replacedImage = null;
             if (image != null && !image.isEmpty()) {
-                // Delete old image if exists
-                if (existingEvent.getImageUrl() != null) {
-                    imageUploadService.deleteImage(existingEvent.getImageUrl());
-                }
-                
+                replacedImage = existingEvent.getImageUrl();
                 String imagePath = imageUploadService.uploadImage(image, "events");
                 existingEvent.setImageUrl(imagePath);
             }
             
             Event updatedEvent = eventService.updateEvent(id, existingEvent);
+            mediaDeletionService.deleteAfterCommit(replacedImage);
             return ResponseEntity.ok(updatedEvent);
             
         } catch (IOException e) {
@@ -1198,6 +1192,30 @@ public ResponseEntity<CauseResponse> createCause(@Valid @RequestBody CauseReques
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/personal-cause-submissions/{id}/files.zip")
+    @Operation(summary = "Admin - Download all submission files",
+               description = "Stream one ZIP of every image, video and proof document of a personal cause submission")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "ZIP archive streamed"),
+            @ApiResponse(responseCode = "404", description = "Submission not found")
+    })
+    public void downloadPersonalCauseSubmissionFiles(
+            @Parameter(description = "ID of the personal cause submission") @PathVariable Long id,
+            HttpServletResponse response) throws IOException {
+        List<SubmissionArchiveService.ArchiveEntry> entries;
+        try {
+            entries = submissionArchiveService.listEntries(id);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        // Written straight to the response as it is read, so there is no Content-Length
+        response.setContentType("application/zip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename("submission-" + id + ".zip").build().toString());
+        submissionArchiveService.writeArchive(entries, response.getOutputStream());
+    }
+
     @GetMapping("/personal-cause-submissions/by-status/{status}")
     @Operation(summary = "Admin - Get submissions by status", description = "Retrieve personal cause submissions filtered by status")
     @ApiResponse(responseCode = "200", description = "Successfully retrieved submissions by status")
@@ -1365,4 +1383,95 @@ public ResponseEntity<CauseResponse> createCause(@Valid @RequestBody CauseReques
             return ResponseEntity.badRequest().body(errorResponse);
         }
     }
+
+    @GetMapping("/media-cache/stats")
+    @Operation(summary = "Admin - Hot media cache statistics", description = "Hit ratio, evictions and memory use of the in-memory cache for small images")
+    @ApiResponse(responseCode = "200", description = "Cache statistics retrieved successfully")
+    public ResponseEntity<Map<String, Object>> getMediaCacheStats() {
+        Map<String, Object> response = new HashMap<>(hotMediaCache.getStats());
+        response.put("timestamp", DateTimeUtil.getCurrentKolkataTime());
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/media/catalog")
+    @Operation(summary = "Admin - List media catalog", description = "Page through stored media, newest first, by category or by the entity that owns them (ownerType cause, event, blog or submission with ownerId)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved media"),
+            @ApiResponse(responseCode = "400", description = "ownerType given without ownerId")
+    })
+    public ResponseEntity<Page<MediaObjectResponse>> getMediaCatalog(
+            @Parameter(description = "Category, e.g. causes or proof-documents") @RequestParam(required = false) String category,
+            @Parameter(description = "Owning entity type") @RequestParam(required = false) String ownerType,
+            @Parameter(description = "Owning entity ID") @RequestParam(required = false) Long ownerId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (ownerType != null && ownerId == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        Page<MediaObject> mediaPage = ownerType != null
+                ? mediaCatalogService.listByOwner(ownerType, ownerId, page, size)
+                : mediaCatalogService.listByCategory(category, page, size);
+        return ResponseEntity.ok(mediaPage.map(MediaObjectResponse::fromEntity));
+    }
+
+    @PostMapping("/media-gc/run")
+    @Operation(summary = "Admin - Collect orphaned media", description = "Delete uploads no cause, event, blog or submission references, older than the grace period. Use dryRun=true to only list them.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Collection finished"),
+            @ApiResponse(responseCode = "500", description = "Upload directory unreadable")
+    })
+    public ResponseEntity<Map<String, Object>> collectOrphanedMedia(
+            @Parameter(description = "Only report what would be deleted")
+            @RequestParam(value = "dryRun", defaultValue = "true") boolean dryRun) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            OrphanMediaCollectionService.CollectionResult result = orphanMediaCollectionService.collect(dryRun);
+            response.put("dryRun", result.isDryRun());
+            response.put("referenced", result.getReferenced());
+            response.put("candidates", result.getCandidates());
+            response.put("orphaned", result.getOrphaned());
+            response.put("deleted", result.getDeleted());
+            response.put("failed", result.getFailed());
+            response.put("bytesReclaimed", result.getBytesReclaimed());
+            response.put("durationMs", result.getDurationMs());
+            response.put("orphans", result.getOrphans());
+            response.put("timestamp", DateTimeUtil.getCurrentKolkataTime());
+            return ResponseEntity.ok(response);
+        } catch (IOException e) {
+            response.put("error", "Orphaned media collection failed: " + e.getMessage());
+            return ResponseEntity.internalServerError().body(response);
+        }
+    }
+
+    @GetMapping("/uploads/admission")
+    @Operation(summary = "Admin - Upload admission statistics", description = "Uploads in flight per category, rejections and free space of the upload volume")
+    @ApiResponse(responseCode = "200", description = "Admission statistics retrieved successfully")
+    public ResponseEntity<Map<String, Object>> getUploadAdmissionStats() {
+        Map<String, Object> response = new HashMap<>(uploadAdmissionService.getStats());
+        response.put("timestamp", DateTimeUtil.getCurrentKolkataTime());
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/storage/shard-migration")
+    @Operation(summary = "Admin - Move uploads into sharded directories", description = "Move up to 'limit' files of the flat upload layout into hash-prefix shard directories while the site keeps serving them. Call repeatedly until nothing remains.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch migrated"),
+            @ApiResponse(responseCode = "400", description = "Sharding disabled or upload directory unreadable")
+    })
+    public ResponseEntity<Map<String, Object>> migrateUploadShards(
+            @Parameter(description = "Maximum number of files to move in this call")
+            @RequestParam(value = "limit", defaultValue = "10000") int limit) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            UploadShardMigrationService.MigrationResult result = uploadShardMigrationService.migrate(limit);
+            response.put("moved", result.getMoved());
+            response.put("failed", result.getFailed());
+            response.put("remaining", result.getRemaining());
+            response.put("timestamp", DateTimeUtil.getCurrentKolkataTime());
+            return ResponseEntity.ok(response);
+        } catch (IOException | IllegalStateException e) {
+            response.put("error", "Failed to migrate uploads: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
 }
@@ -1,27 +1,25 @@
 package com.donorbox.backend.controller;
 
+import com.donorbox.backend.service.FileServingService;
 import com.donorbox.backend.service.ImageUploadService;
+import com.donorbox.backend.service.ImageVariantService;
+import com.donorbox.backend.service.MediaTypeRegistry;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.List;
@@ -35,9 +33,9 @@ import java.util.ArrayList;
 public class ImageController {
 
     private final ImageUploadService imageUploadService;
-
-    @Value("${app.upload.dir:uploads}")
-    private String uploadDir;
+    private final FileServingService fileServingService;
+    private final ImageVariantService imageVariantService;
+    private final MediaTypeRegistry mediaTypeRegistry;
 
      //Upload an image for causes
     @PostMapping("/causes/upload-image")
@@ -143,28 +141,17 @@ public class ImageController {
             @Parameter(description = "Image category")
             @PathVariable String category,
             @Parameter(description = "Image filename")
-            @PathVariable String filename) {
+            @PathVariable String filename,
+            @Parameter(description = "Requested display width in pixels; the nearest generated variant is served")
+            @RequestParam(value = "w", required = false) Integer width,
+            HttpServletRequest request) {
         
-        try {
-            Path imagePath = Paths.get(uploadDir).resolve(category).resolve(filename);
-            Resource resource = new UrlResource(imagePath.toUri());
-            
-            if (resource.exists() && resource.isReadable()) {
-                // Determine content type based on file extension
-                String contentType = determineContentType(filename);
-                
-                return ResponseEntity.ok()
-                        .contentType(MediaType.parseMediaType(contentType))
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
-                        .body(resource);
-            } else {
-                log.warn("Image not found or not readable: {}", imagePath);
-                return ResponseEntity.notFound().build();
-            }
-        } catch (MalformedURLException e) {
-            log.error("Error creating resource for image: {}/{}", category, filename, e);
-            return ResponseEntity.notFound().build();
-        }
+        Path imagePath = fileServingService.resolveUploadPath(category, filename);
+        imagePath = width != null ? imageVariantService.resolveVariant(imagePath, width)
+                : imageVariantService.resolveOptimized(imagePath);
+        String contentType = imagePath != null ? mediaTypeRegistry.getContentType(imagePath.getFileName().toString()) : "application/octet-stream";
+        // A variant or optimized copy still downloads under the name that was requested
+        return fileServingService.serveFile(imagePath, filename, contentType, "inline", null, request);
     }
 
      // Delete an uploaded image
@@ -355,23 +342,4 @@ public class ImageController {
             return ResponseEntity.badRequest().body(response);
         }
     }
-     // Determine content type based on file extension
-    private String determineContentType(String filename) {
-        String extension = filename.substring(filename.lastIndexOf('.') + 1).toLowerCase();
-        
-        switch (extension) {
-            case "jpg":
-                return "image/jpg";
-            case "jpeg":
-                return "image/jpeg";
-            case "png":
-                return "image/png";
-            case "gif":
-                return "image/gif";
-            case "webp":
-                return "image/webp";
-            default:
-                return "application/octet-stream";
-        }
-    }
 }
@@ -1,17 +1,21 @@
 package com.donorbox.backend.controller;
 
+import com.donorbox.backend.entity.MediaObject;
+import com.donorbox.backend.service.FileServingService;
+import com.donorbox.backend.service.MediaCatalogService;
+import com.donorbox.backend.service.MediaDeletionService;
+import com.donorbox.backend.service.ImageVariantService;
 import com.donorbox.backend.service.MediaUploadService;
+import com.donorbox.backend.service.ParallelUploadService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -19,13 +23,12 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api")
@@ -35,9 +38,10 @@ import java.util.Map;
 public class MediaController {
 
     private final MediaUploadService mediaUploadService;
-
-    @Value("${app.upload.dir:uploads}")
-    private String uploadDir;
+    private final FileServingService fileServingService;
+    private final ImageVariantService imageVariantService;
+    private final MediaCatalogService mediaCatalogService;
+    private final MediaDeletionService mediaDeletionService;
 
 
     // =================== VIDEO UPLOAD ENDPOINTS ===================
@@ -186,9 +190,12 @@ public class MediaController {
             @Parameter(description = "Media category")
             @PathVariable String category,
             @Parameter(description = "Media filename")
-            @PathVariable String filename) {
+            @PathVariable String filename,
+            @Parameter(description = "Requested display width in pixels for images; the nearest generated variant is served")
+            @RequestParam(value = "w", required = false) Integer width,
+            HttpServletRequest request) {
         
-        return serveMediaFile(category, filename);
+        return serveMediaFile(category, filename, width, request);
     }
 
     // =================== UNIFIED CAUSE MEDIA RETRIEVAL ENDPOINTS ===================
@@ -201,9 +208,12 @@ public class MediaController {
     })
     public ResponseEntity<Resource> getPersonalCauseMedia(
             @Parameter(description = "Media filename")
-            @PathVariable String filename) {
+            @PathVariable String filename,
+            @Parameter(description = "Requested display width in pixels for images; the nearest generated variant is served")
+            @RequestParam(value = "w", required = false) Integer width,
+            HttpServletRequest request) {
         
-        return serveMediaFile("personal-causes", filename);
+        return serveMediaFile("personal-causes", filename, width, request);
     }
 
     @GetMapping("/public-causes/media/{filename:.+}")
@@ -214,9 +224,12 @@ public class MediaController {
     })
     public ResponseEntity<Resource> getPublicCauseMedia(
             @Parameter(description = "Media filename")
-            @PathVariable String filename) {
+            @PathVariable String filename,
+            @Parameter(description = "Requested display width in pixels for images; the nearest generated variant is served")
+            @RequestParam(value = "w", required = false) Integer width,
+            HttpServletRequest request) {
         
-        return serveMediaFile("public-causes", filename);
+        return serveMediaFile("public-causes", filename, width, request);
     }
 
     @GetMapping("/causes/media/{filename:.+}")
@@ -227,9 +240,12 @@ public class MediaController {
     })
     public ResponseEntity<Resource> getCauseMedia(
             @Parameter(description = "Media filename")
-            @PathVariable String filename) {
+            @PathVariable String filename,
+            @Parameter(description = "Requested display width in pixels for images; the nearest generated variant is served")
+            @RequestParam(value = "w", required = false) Integer width,
+            HttpServletRequest request) {
         
-        return serveMediaFile("causes", filename);
+        return serveMediaFile("causes", filename, width, request);
     }
 
     @GetMapping("/events/media/{filename:.+}")
@@ -240,9 +256,12 @@ public class MediaController {
     })
     public ResponseEntity<Resource> getEventMedia(
             @Parameter(description = "Media filename")
-            @PathVariable String filename) {
+            @PathVariable String filename,
+            @Parameter(description = "Requested display width in pixels for images; the nearest generated variant is served")
+            @RequestParam(value = "w", required = false) Integer width,
+            HttpServletRequest request) {
         
-        return serveMediaFile("events", filename);
+        return serveMediaFile("events", filename, width, request);
     }
 
     @GetMapping("/blogs/media/{filename:.+}")
@@ -253,9 +272,12 @@ public class MediaController {
     })
     public ResponseEntity<Resource> getBlogMedia(
             @Parameter(description = "Media filename")
-            @PathVariable String filename) {
+            @PathVariable String filename,
+            @Parameter(description = "Requested display width in pixels for images; the nearest generated variant is served")
+            @RequestParam(value = "w", required = false) Integer width,
+            HttpServletRequest request) {
         
-        return serveMediaFile("blogs", filename);
+        return serveMediaFile("blogs", filename, width, request);
     }
 
     // Note: Image endpoints are handled by ImageController to avoid mapping conflicts
@@ -446,7 +468,7 @@ public class MediaController {
     // =================== MEDIA INFO ENDPOINTS ===================
 
     @GetMapping("/media/info/{category}/{filename:.+}")
-    @Operation(summary = "Get media information", description = "Retrieve information about an uploaded media file")
+    @Operation(summary = "Get media information", description = "Retrieve information about an uploaded media file from the media catalog")
     public ResponseEntity<Map<String, Object>> getMediaInfo(
             @Parameter(description = "Media category")
             @PathVariable String category,
@@ -456,7 +478,27 @@ public class MediaController {
         String mediaPath = category + "/" + filename;
         Map<String, Object> response = new HashMap<>();
         
-        if (mediaUploadService.mediaExists(mediaPath)) {
+        Optional<MediaObject> cataloged = mediaCatalogService.find(mediaPath);
+        if (cataloged.isPresent()) {
+            MediaObject mediaObject = cataloged.get();
+            response.put("exists", true);
+            response.put("mediaPath", mediaPath);
+            response.put("mediaUrl", mediaUploadService.getMediaUrl(mediaPath));
+            response.put("isImage", "IMAGE".equals(mediaObject.getMediaType()));
+            response.put("isVideo", "VIDEO".equals(mediaObject.getMediaType()));
+            response.put("mediaType", mediaObject.getMediaType());
+            response.put("contentType", mediaObject.getContentType());
+            response.put("size", mediaObject.getSize());
+            response.put("width", mediaObject.getWidth());
+            response.put("height", mediaObject.getHeight());
+            response.put("contentHash", mediaObject.getContentHash());
+            response.put("ownerType", mediaObject.getOwnerType());
+            response.put("ownerId", mediaObject.getOwnerId());
+            response.put("createdAt", mediaObject.getCreatedAt());
+
+            return ResponseEntity.ok(response);
+        } else if (mediaUploadService.mediaExists(mediaPath)) {
+            // Stored before the catalog: described from its extension
             response.put("exists", true);
             response.put("mediaPath", mediaPath);
             response.put("mediaUrl", mediaUploadService.getMediaUrl(mediaPath));
@@ -631,42 +673,58 @@ public class MediaController {
         return uploadMultipleMedia(files, category);
     }
 
-    // =================== PRIVATE HELPER METHODS ===================
+    @PostMapping(value = "/upload-stream/{category}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Stream media files", description = "Upload images and/or videos by streaming the request body straight to storage, without buffering it first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Media files uploaded successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid files or upload failed")
+    })
+    public ResponseEntity<Map<String, Object>> uploadMediaStream(
+            @Parameter(description = "Category for organizing media")
+            @PathVariable String category,
+            HttpServletRequest request) {
+        // No @RequestParam here: reading a parameter would make the container parse the whole body
+        Map<String, Object> response = new HashMap<>();
 
-    private ResponseEntity<Resource> serveMediaFile(String category, String filename) {
         try {
-            Path mediaPath = Paths.get(uploadDir).resolve(category).resolve(filename);
-            Resource resource = new UrlResource(mediaPath.toUri());
-            
-            if (resource.exists() && resource.isReadable()) {
-                // Determine content type based on file extension
-                String contentType = mediaUploadService.getContentType(filename);
-                
-                // Set appropriate headers for different media types
-                ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.ok()
-                        .contentType(MediaType.parseMediaType(contentType));
-                
-                // For images, use inline disposition; for videos, allow inline as well
-                if (mediaUploadService.isImageFile(filename)) {
-                    responseBuilder.header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"");
-                    // Add cache headers for images
-                    responseBuilder.header(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000"); // 1 year
-                } else if (mediaUploadService.isVideoFile(filename)) {
-                    responseBuilder.header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"");
-                    // Add headers for video streaming
-                    responseBuilder.header(HttpHeaders.ACCEPT_RANGES, "bytes");
-                    responseBuilder.header(HttpHeaders.CACHE_CONTROL, "public, max-age=3600"); // 1 hour
-                }
-                
-                return responseBuilder.body(resource);
-            } else {
-                log.warn("Media not found or not readable: {}", mediaPath);
-                return ResponseEntity.notFound().build();
-            }
-        } catch (MalformedURLException e) {
-            log.error("Error creating resource for media: {}/{}", category, filename, e);
-            return ResponseEntity.notFound().build();
+            List<String> uploadedPaths = mediaUploadService.uploadMediaStream(request, category);
+            List<String> fullUrls = uploadedPaths.stream().map(mediaUploadService::getMediaUrl).toList();
+
+            response.put("message", "Media files uploaded successfully");
+            response.put("category", category);
+            response.put("uploadedCount", uploadedPaths.size());
+            response.put("mediaPaths", uploadedPaths);
+            response.put("mediaUrls", fullUrls);
+
+            log.info("Streamed media upload: {} files to category {}", uploadedPaths.size(), category);
+
+            return ResponseEntity.ok(response);
+
+        } catch (IOException e) {
+            log.error("Error streaming media upload: {}", e.getMessage(), e);
+            response.put("error", "Failed to upload media files: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    // =================== PRIVATE HELPER METHODS ===================
+
+    private ResponseEntity<Resource> serveMediaFile(String category, String filename, Integer width, HttpServletRequest request) {
+        Path mediaPath = fileServingService.resolveUploadPath(category, filename);
+
+        // Images are immutable once uploaded; videos get a shorter lifetime
+        String cacheControl = null;
+        if (mediaUploadService.isImageFile(filename)) {
+            cacheControl = "public, max-age=31536000"; // 1 year
+            mediaPath = width != null ? imageVariantService.resolveVariant(mediaPath, width)
+                    : imageVariantService.resolveOptimized(mediaPath);
+        } else if (mediaUploadService.isVideoFile(filename)) {
+            cacheControl = "public, max-age=3600"; // 1 hour
         }
+
+        String contentType = mediaUploadService.getContentType(mediaPath != null ? mediaPath.getFileName().toString() : filename);
+        // A variant or optimized copy still downloads under the name that was requested
+        return fileServingService.serveFile(mediaPath, filename, contentType, "inline", cacheControl, request);
     }
 
     private ResponseEntity<Map<String, String>> uploadImage(MultipartFile file, String category) {
@@ -804,14 +862,9 @@ public class MediaController {
                 return ResponseEntity.badRequest().body(response);
             }
             
-            // Delete the old file first
-            boolean deleted = mediaUploadService.deleteMedia(oldMediaPath);
-            if (!deleted) {
-                log.warn("Failed to delete old media file: {}", oldMediaPath);
-            }
-            
-            // Upload the new file
+            // Upload the new file, then delete the old one, so a failed upload loses nothing
             String relativePath = mediaUploadService.uploadMedia(newFile, category);
+            mediaDeletionService.deleteAfterCommit(oldMediaPath);
             String fullUrl = mediaUploadService.getMediaUrl(relativePath);
             
             // Determine media type
@@ -868,20 +921,27 @@ public class MediaController {
                 return ResponseEntity.badRequest().body(response);
             }
             
-            List<String> uploadedPaths = mediaUploadService.uploadMultipleImages(files, category);
+            List<ParallelUploadService.UploadResult> results =
+                    mediaUploadService.uploadMediaBatch(files, category, MediaUploadService.FileMediaType.IMAGE);
+            if (results.isEmpty()) {
+                response.put("error", "No valid image files were uploaded");
+                return ResponseEntity.badRequest().body(response);
+            }
+            List<String> uploadedPaths = new ArrayList<>();
             List<String> fullUrls = new ArrayList<>();
             List<Map<String, String>> fileDetails = new ArrayList<>();
             
-            for (int i = 0; i < uploadedPaths.size(); i++) {
-                String path = uploadedPaths.get(i);
+            for (ParallelUploadService.UploadResult result : results) {
+                String path = result.getPath();
                 String url = mediaUploadService.getMediaUrl(path);
+                uploadedPaths.add(path);
                 fullUrls.add(url);
                 
                 Map<String, String> fileDetail = new HashMap<>();
-                fileDetail.put("originalFilename", files[i].getOriginalFilename());
+                fileDetail.put("originalFilename", result.getOriginalFilename());
                 fileDetail.put("uploadedPath", path);
                 fileDetail.put("url", url);
-                fileDetail.put("size", String.valueOf(files[i].getSize()));
+                fileDetail.put("size", String.valueOf(result.getSize()));
                 fileDetails.add(fileDetail);
             }
             
@@ -913,20 +973,27 @@ public class MediaController {
                 return ResponseEntity.badRequest().body(response);
             }
             
-            List<String> uploadedPaths = mediaUploadService.uploadMultipleVideos(files, category);
+            List<ParallelUploadService.UploadResult> results =
+                    mediaUploadService.uploadMediaBatch(files, category, MediaUploadService.FileMediaType.VIDEO);
+            if (results.isEmpty()) {
+                response.put("error", "No valid video files were uploaded");
+                return ResponseEntity.badRequest().body(response);
+            }
+            List<String> uploadedPaths = new ArrayList<>();
             List<String> fullUrls = new ArrayList<>();
             List<Map<String, String>> fileDetails = new ArrayList<>();
             
-            for (int i = 0; i < uploadedPaths.size(); i++) {
-                String path = uploadedPaths.get(i);
+            for (ParallelUploadService.UploadResult result : results) {
+                String path = result.getPath();
                 String url = mediaUploadService.getMediaUrl(path);
+                uploadedPaths.add(path);
                 fullUrls.add(url);
                 
                 Map<String, String> fileDetail = new HashMap<>();
-                fileDetail.put("originalFilename", files[i].getOriginalFilename());
+                fileDetail.put("originalFilename", result.getOriginalFilename());
                 fileDetail.put("uploadedPath", path);
                 fileDetail.put("url", url);
-                fileDetail.put("size", String.valueOf(files[i].getSize()));
+                fileDetail.put("size", String.valueOf(result.getSize()));
                 fileDetails.add(fileDetail);
             }
             
@@ -958,26 +1025,32 @@ public class MediaController {
                 return ResponseEntity.badRequest().body(response);
             }
             
-            List<String> uploadedPaths = mediaUploadService.uploadMultipleMedia(files, category);
+            List<ParallelUploadService.UploadResult> results = mediaUploadService.uploadMediaBatch(files, category, null);
+            if (results.isEmpty()) {
+                response.put("error", "No valid files were uploaded");
+                return ResponseEntity.badRequest().body(response);
+            }
+            List<String> uploadedPaths = new ArrayList<>();
             List<String> fullUrls = new ArrayList<>();
             List<Map<String, String>> fileDetails = new ArrayList<>();
             
-            for (int i = 0; i < uploadedPaths.size(); i++) {
-                String path = uploadedPaths.get(i);
+            for (ParallelUploadService.UploadResult result : results) {
+                String path = result.getPath();
                 String url = mediaUploadService.getMediaUrl(path);
+                uploadedPaths.add(path);
                 fullUrls.add(url);
                 
                 Map<String, String> fileDetail = new HashMap<>();
-                fileDetail.put("originalFilename", files[i].getOriginalFilename());
+                fileDetail.put("originalFilename", result.getOriginalFilename());
                 fileDetail.put("uploadedPath", path);
                 fileDetail.put("url", url);
-                fileDetail.put("size", String.valueOf(files[i].getSize()));
+                fileDetail.put("size", String.valueOf(result.getSize()));
                 
                 // Determine media type
                 String mediaType = "UNKNOWN";
-                if (mediaUploadService.isImageFile(files[i].getOriginalFilename())) {
+                if (mediaUploadService.isImageFile(result.getOriginalFilename())) {
                     mediaType = "IMAGE";
-                } else if (mediaUploadService.isVideoFile(files[i].getOriginalFilename())) {
+                } else if (mediaUploadService.isVideoFile(result.getOriginalFilename())) {
                     mediaType = "VIDEO";
                 }
                 fileDetail.put("mediaType", mediaType);
@@ -1021,21 +1094,20 @@ public class MediaController {
             List<String> fullUrls = new ArrayList<>();
             List<Map<String, String>> fileDetails = new ArrayList<>();
             
-            for (MultipartFile file : files) {
-                if (file != null && !file.isEmpty()) {
-                    String relativePath = mediaUploadService.uploadVideo(file, category);
-                    String fullUrl = mediaUploadService.getMediaUrl(relativePath);
-                    
-                    uploadedPaths.add(relativePath);
-                    fullUrls.add(fullUrl);
-                    
-                    Map<String, String> fileDetail = new HashMap<>();
-                    fileDetail.put("originalFilename", file.getOriginalFilename());
-                    fileDetail.put("uploadedPath", relativePath);
-                    fileDetail.put("url", fullUrl);
-                    fileDetail.put("size", String.valueOf(file.getSize()));
-                    fileDetails.add(fileDetail);
-                }
+            for (ParallelUploadService.UploadResult result :
+                    mediaUploadService.uploadMediaBatch(files, category, MediaUploadService.FileMediaType.VIDEO)) {
+                String relativePath = result.getPath();
+                String fullUrl = mediaUploadService.getMediaUrl(relativePath);
+                
+                uploadedPaths.add(relativePath);
+                fullUrls.add(fullUrl);
+                
+                Map<String, String> fileDetail = new HashMap<>();
+                fileDetail.put("originalFilename", result.getOriginalFilename());
+                fileDetail.put("uploadedPath", relativePath);
+                fileDetail.put("url", fullUrl);
+                fileDetail.put("size", String.valueOf(result.getSize()));
+                fileDetails.add(fileDetail);
             }
             
             if (uploadedPaths.isEmpty()) {
@@ -1099,31 +1171,29 @@ public class MediaController {
             List<String> fullUrls = new ArrayList<>();
             List<Map<String, String>> fileDetails = new ArrayList<>();
             
-            for (MultipartFile file : files) {
-                if (file != null && !file.isEmpty()) {
-                    String relativePath = mediaUploadService.uploadMedia(file, category);
-                    String fullUrl = mediaUploadService.getMediaUrl(relativePath);
-                    
-                    uploadedPaths.add(relativePath);
-                    fullUrls.add(fullUrl);
-                    
-                    Map<String, String> fileDetail = new HashMap<>();
-                    fileDetail.put("originalFilename", file.getOriginalFilename());
-                    fileDetail.put("uploadedPath", relativePath);
-                    fileDetail.put("url", fullUrl);
-                    fileDetail.put("size", String.valueOf(file.getSize()));
-                    
-                    // Determine media type
-                    String mediaType = "UNKNOWN";
-                    if (mediaUploadService.isImageFile(file.getOriginalFilename())) {
-                        mediaType = "IMAGE";
-                    } else if (mediaUploadService.isVideoFile(file.getOriginalFilename())) {
-                        mediaType = "VIDEO";
-                    }
-                    fileDetail.put("mediaType", mediaType);
-                    
-                    fileDetails.add(fileDetail);
+            for (ParallelUploadService.UploadResult result : mediaUploadService.uploadMediaBatch(files, category, null)) {
+                String relativePath = result.getPath();
+                String fullUrl = mediaUploadService.getMediaUrl(relativePath);
+                
+                uploadedPaths.add(relativePath);
+                fullUrls.add(fullUrl);
+                
+                Map<String, String> fileDetail = new HashMap<>();
+                fileDetail.put("originalFilename", result.getOriginalFilename());
+                fileDetail.put("uploadedPath", relativePath);
+                fileDetail.put("url", fullUrl);
+                fileDetail.put("size", String.valueOf(result.getSize()));
+                
+                // Determine media type
+                String mediaType = "UNKNOWN";
+                if (mediaUploadService.isImageFile(result.getOriginalFilename())) {
+                    mediaType = "IMAGE";
+                } else if (mediaUploadService.isVideoFile(result.getOriginalFilename())) {
+                    mediaType = "VIDEO";
                 }
+                fileDetail.put("mediaType", mediaType);
+                
+                fileDetails.add(fileDetail);
             }
             
             if (uploadedPaths.isEmpty()) {
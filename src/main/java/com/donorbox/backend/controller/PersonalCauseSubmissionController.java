@@ -6,6 +6,7 @@ import com.donorbox.backend.service.PersonalCauseSubmissionService;
 import com.donorbox.backend.service.ImageUploadService;
 import com.donorbox.backend.service.DocumentUploadService;
 import com.donorbox.backend.service.MediaUploadService;
+import com.donorbox.backend.service.ParallelUploadService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -28,6 +29,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @RestController
@@ -40,6 +42,7 @@ public class PersonalCauseSubmissionController {
     private final ImageUploadService imageUploadService;
     private final DocumentUploadService documentUploadService;
     private final MediaUploadService mediaUploadService;
+    private final ParallelUploadService parallelUploadService;
 
     @PostMapping
     @Operation(summary = "Submit personal cause (JSON only)", description = "Submit a personal cause for admin approval - JSON data only, no file uploads")
@@ -79,41 +82,7 @@ public class PersonalCauseSubmissionController {
             @Parameter(description = "Multiple document files (PDF, DOC, DOCX, JPG, PNG, etc.)", content = @Content(mediaType = MediaType.MULTIPART_FORM_DATA_VALUE)) @RequestParam(value = "documents", required = false) List<MultipartFile> documents) {
         
         try {
-            List<String> imageUrls = new ArrayList<>();
-            List<String> videoUrls = new ArrayList<>();
-            List<String> documentUrls = new ArrayList<>();
-            
-            // Handle multiple image uploads
-            if (images != null && !images.isEmpty()) {
-                for (MultipartFile image : images) {
-                    if (image != null && !image.isEmpty()) {
-                        String imagePath = imageUploadService.uploadImage(image, "personal-causes");
-                        imageUrls.add(imagePath);
-                    }
-                }
-            }
-            
-            // Handle multiple video uploads
-            if (videos != null && !videos.isEmpty()) {
-                for (MultipartFile video : videos) {
-                    if (video != null && !video.isEmpty()) {
-                        String videoPath = mediaUploadService.uploadVideo(video, "personal-causes");
-                        videoUrls.add(videoPath);
-                    }
-                }
-            }
-            
-            // Handle multiple document uploads
-            if (documents != null && !documents.isEmpty()) {
-                for (MultipartFile document : documents) {
-                    if (document != null && !document.isEmpty()) {
-                        String documentPath = documentUploadService.uploadDocument(document, "proof-documents");
-                        documentUrls.add(documentPath);
-                    }
-                }
-            }
-            
-            // Create request object
+            // Create request object (parsed before any file is stored)
             PersonalCauseSubmissionRequest request = PersonalCauseSubmissionRequest.builder()
                     .title(title)
                     .description(description)
@@ -128,8 +97,32 @@ public class PersonalCauseSubmissionController {
                     .submitterMessage(submitterMessage)
                     .build();
             
-            PersonalCauseSubmissionResponse response = submissionService.createSubmissionWithMultipleFiles(
-                    request, imageUrls, videoUrls, documentUrls);
+            // Upload images, videos and documents together in one parallel, all-or-nothing batch
+            List<ParallelUploadService.UploadTask> tasks = new ArrayList<>();
+            int imageCount = addUploadTasks(tasks, images,
+                    file -> imageUploadService.uploadImage(file, "personal-causes"), imageUploadService::deleteImage);
+            int videoCount = addUploadTasks(tasks, videos,
+                    file -> mediaUploadService.uploadVideo(file, "personal-causes"), mediaUploadService::deleteMedia);
+            addUploadTasks(tasks, documents,
+                    file -> documentUploadService.uploadDocument(file, "proof-documents"), documentUploadService::deleteDocument);
+            
+            List<String> paths = tasks.isEmpty() ? List.of() : parallelUploadService.uploadAll(tasks).stream()
+                    .map(ParallelUploadService.UploadResult::getPath)
+                    .collect(Collectors.toList());
+            List<String> imageUrls = new ArrayList<>(paths.subList(0, imageCount));
+            List<String> videoUrls = new ArrayList<>(paths.subList(imageCount, imageCount + videoCount));
+            List<String> documentUrls = new ArrayList<>(paths.subList(imageCount + videoCount, paths.size()));
+            
+            PersonalCauseSubmissionResponse response;
+            try {
+                response = submissionService.createSubmissionWithMultipleFiles(
+                        request, imageUrls, videoUrls, documentUrls);
+            } catch (RuntimeException e) {
+                for (int i = 0; i < paths.size(); i++) {
+                    tasks.get(i).getRollback().accept(paths.get(i));
+                }
+                throw e;
+            }
             
             return new ResponseEntity<>(response, HttpStatus.CREATED);
             
@@ -425,4 +418,18 @@ public class PersonalCauseSubmissionController {
         List<PersonalCauseSubmissionResponse> submissions = submissionService.getSubmissionsByEmail(email);
         return ResponseEntity.ok(submissions);
     }
+
+    private int addUploadTasks(List<ParallelUploadService.UploadTask> tasks, List<MultipartFile> files,
+                               ParallelUploadService.FileUploader uploader, Consumer<String> rollback) {
+        int added = 0;
+        if (files != null) {
+            for (MultipartFile file : files) {
+                if (file != null && !file.isEmpty()) {
+                    tasks.add(ParallelUploadService.UploadTask.of(file, uploader, rollback));
+                    added++;
+                }
+            }
+        }
+        return added;
+    }
 }
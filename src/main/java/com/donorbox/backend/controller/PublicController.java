@@ -3,7 +3,6 @@ package com.donorbox.backend.controller;
 import com.donorbox.backend.dto.*;
 import com.donorbox.backend.entity.*;
 import com.donorbox.backend.service.*;
-import java.util.stream.Collectors;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -15,9 +14,13 @@ import io.swagger.v3.oas.annotations.media.ArraySchema;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
  
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -296,16 +299,19 @@ public class PublicController {
     // ====================================
 
     @GetMapping("/blogs")
-    @Operation(summary = "Get published blogs", description = "Retrieve all published blog posts")
+    @Operation(summary = "Get published blogs", description = "Retrieve published blog posts, newest first. " +
+            "Without page and size all posts are returned; with either, one page is returned. " +
+            "X-Total-Count carries the number of posts and, for a page, Link the next and previous pages.")
     @ApiResponse(responseCode = "200", description = "Successfully retrieved published blogs")
-    public ResponseEntity<List<BlogResponse>> getPublishedBlogs() {
+    public ResponseEntity<List<BlogResponse>> getPublishedBlogs(
+            @Parameter(description = "Zero-based page number") @RequestParam(required = false) Integer page,
+            @Parameter(description = "Page size (at most 100)") @RequestParam(required = false) Integer size) {
         try {
-            List<Blog> blogs = blogService.getPublishedBlogs();
-            List<BlogResponse> responses = blogs.stream()
-                    .map(BlogResponse::summaryFromEntity)
-                    .collect(Collectors.toList());
-            log.info("Successfully retrieved {} published blogs", responses.size());
-            return ResponseEntity.ok(responses);
+            Page<BlogResponse> blogs = page == null && size == null
+                    ? blogService.getPublishedBlogSummaries()
+                    : blogService.getPublishedBlogSummaries(page != null ? page : 0, size != null ? size : BlogService.MAX_PAGE_SIZE);
+            log.info("Successfully retrieved {} published blogs", blogs.getNumberOfElements());
+            return listingResponse(blogs);
         } catch (Exception e) {
             log.error("Error retrieving published blogs", e);
             // Return empty list instead of error to prevent frontend issues
@@ -330,6 +336,7 @@ public class PublicController {
             }
             
             BlogResponse response = BlogResponse.fromEntity(blog);
+            response.setViewCount(blogService.getViewCount(blog));
             return ResponseEntity.ok(response);
         } catch (IllegalArgumentException e) {
             log.error("Blog not found with slug: {}", slug);
@@ -338,20 +345,50 @@ public class PublicController {
     }
 
     @GetMapping("/blogs/featured")
-    @Operation(summary = "Get featured blogs", description = "Retrieve featured blog posts")
+    @Operation(summary = "Get featured blogs", description = "Retrieve featured blog posts, newest first. " +
+            "Paged like /blogs: all posts without page and size, X-Total-Count and Link headers on every response.")
     @ApiResponse(responseCode = "200", description = "Successfully retrieved featured blogs")
-    public ResponseEntity<List<BlogResponse>> getFeaturedBlogs() {
+    public ResponseEntity<List<BlogResponse>> getFeaturedBlogs(
+            @Parameter(description = "Zero-based page number") @RequestParam(required = false) Integer page,
+            @Parameter(description = "Page size (at most 100)") @RequestParam(required = false) Integer size) {
         try {
-            List<Blog> blogs = blogService.getFeaturedBlogs();
-            List<BlogResponse> responses = blogs.stream()
-                    .map(BlogResponse::summaryFromEntity)
-                    .collect(Collectors.toList());
-            log.info("Successfully retrieved {} featured blogs", responses.size());
-            return ResponseEntity.ok(responses);
+            Page<BlogResponse> blogs = page == null && size == null
+                    ? blogService.getFeaturedBlogSummaries()
+                    : blogService.getFeaturedBlogSummaries(page != null ? page : 0, size != null ? size : BlogService.MAX_PAGE_SIZE);
+            log.info("Successfully retrieved {} featured blogs", blogs.getNumberOfElements());
+            return listingResponse(blogs);
         } catch (Exception e) {
             log.error("Error retrieving featured blogs", e);
             // Return empty list instead of error to prevent frontend issues
             return ResponseEntity.ok(new ArrayList<>());
         }
     }
+
+    /**
+     * Listing body as a plain array, as before paging, with the page metadata in headers:
+     * X-Total-Count, and for a page RFC 8288 Link entries to the next and previous pages
+     */
+    private ResponseEntity<List<BlogResponse>> listingResponse(Page<BlogResponse> blogs) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Total-Count", String.valueOf(blogs.getTotalElements()));
+        List<String> links = new ArrayList<>();
+        if (blogs.hasNext()) {
+            links.add(pageLink(blogs.nextPageable(), "next"));
+        }
+        if (blogs.hasPrevious()) {
+            links.add(pageLink(blogs.previousPageable(), "prev"));
+        }
+        if (!links.isEmpty()) {
+            headers.set(HttpHeaders.LINK, String.join(", ", links));
+        }
+        return ResponseEntity.ok().headers(headers).body(blogs.getContent());
+    }
+
+    private static String pageLink(Pageable pageable, String rel) {
+        String url = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("page", pageable.getPageNumber())
+                .replaceQueryParam("size", pageable.getPageSize())
+                .toUriString();
+        return "<" + url + ">; rel=\"" + rel + "\"";
+    }
 }
\ No newline at end of file
@@ -0,0 +1,198 @@
+package com.donorbox.backend.controller;
+
+import com.donorbox.backend.entity.UploadSession;
+import com.donorbox.backend.service.MediaUploadService;
+import com.donorbox.backend.service.ResumableUploadService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/uploads")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Resumable Uploads", description = "Chunked, resumable upload API for large media files")
+public class ResumableUploadController {
+
+    private static final String TUS_RESUMABLE = "Tus-Resumable";
+    private static final String TUS_VERSION = "1.0.0";
+    private static final String UPLOAD_OFFSET = "Upload-Offset";
+    private static final String UPLOAD_LENGTH = "Upload-Length";
+
+    private final ResumableUploadService resumableUploadService;
+    private final MediaUploadService mediaUploadService;
+
+    @PostMapping
+    @Operation(summary = "Create resumable upload", description = "Start a resumable upload of the given total length; chunks are then sent with PATCH")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Upload created, Location points at the upload"),
+            @ApiResponse(responseCode = "400", description = "Invalid category, file type or length")
+    })
+    public ResponseEntity<Map<String, Object>> createUpload(
+            @Parameter(description = "Total file size in bytes")
+            @RequestHeader(UPLOAD_LENGTH) long uploadLength,
+            @Parameter(description = "Original filename (determines the media type)")
+            @RequestParam("filename") String filename,
+            @Parameter(description = "Category for organizing media")
+            @RequestParam(value = "category", defaultValue = "general") String category) {
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            UploadSession session = resumableUploadService.createSession(category, filename, uploadLength);
+            String location = "/api/uploads/" + session.getId();
+
+            response.put("uploadId", session.getId());
+            response.put("uploadUrl", location);
+            response.put("uploadLength", session.getTotalSize());
+            response.put("uploadOffset", 0L);
+
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .header(HttpHeaders.LOCATION, location)
+                    .header(TUS_RESUMABLE, TUS_VERSION)
+                    .header(UPLOAD_OFFSET, "0")
+                    .body(response);
+
+        } catch (IllegalArgumentException e) {
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (IOException e) {
+            log.error("Error creating resumable upload: {}", e.getMessage(), e);
+            response.put("error", "Failed to create upload: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    @RequestMapping(value = "/{uploadId}", method = RequestMethod.HEAD)
+    @Operation(summary = "Get upload offset", description = "Report how many bytes have been received, so an interrupted upload can resume")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Offset returned in the Upload-Offset header"),
+            @ApiResponse(responseCode = "404", description = "Upload not found or expired")
+    })
+    public ResponseEntity<Void> getUploadOffset(@PathVariable String uploadId) {
+        Optional<UploadSession> session = resumableUploadService.getSession(uploadId);
+        if (session.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .header(TUS_RESUMABLE, TUS_VERSION)
+                .header(UPLOAD_OFFSET, String.valueOf(session.get().getReceivedSize()))
+                .header(UPLOAD_LENGTH, String.valueOf(session.get().getTotalSize()))
+                .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                .build();
+    }
+
+    @PatchMapping(value = "/{uploadId}", consumes = "application/offset+octet-stream")
+    @Operation(summary = "Upload chunk", description = "Append the request body at the given offset")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Chunk stored, new offset in the Upload-Offset header"),
+            @ApiResponse(responseCode = "400", description = "Chunk runs past the declared length"),
+            @ApiResponse(responseCode = "404", description = "Upload not found or expired"),
+            @ApiResponse(responseCode = "409", description = "Offset mismatch or another chunk in progress")
+    })
+    public ResponseEntity<Map<String, Object>> uploadChunk(
+            @PathVariable String uploadId,
+            @Parameter(description = "Offset this chunk starts at")
+            @RequestHeader(UPLOAD_OFFSET) long uploadOffset,
+            HttpServletRequest request) {
+        Optional<UploadSession> session = resumableUploadService.getSession(uploadId);
+        if (session.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Map<String, Object> response = new HashMap<>();
+
+        try (InputStream in = request.getInputStream()) {
+            long offset = resumableUploadService.appendChunk(session.get(), uploadOffset, in);
+            return ResponseEntity.noContent()
+                    .header(TUS_RESUMABLE, TUS_VERSION)
+                    .header(UPLOAD_OFFSET, String.valueOf(offset))
+                    .build();
+
+        } catch (IllegalStateException e) {
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        } catch (IllegalArgumentException e) {
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (IOException e) {
+            // Usually a dropped connection; the bytes received so far are kept for resuming
+            log.warn("Chunk for upload {} interrupted: {}", uploadId, e.getMessage());
+            response.put("error", "Failed to store chunk: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @PostMapping("/{uploadId}/complete")
+    @Operation(summary = "Finalize upload", description = "Store a fully received upload as media and return its path")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Media stored successfully"),
+            @ApiResponse(responseCode = "400", description = "File rejected (type or content)"),
+            @ApiResponse(responseCode = "404", description = "Upload not found or expired"),
+            @ApiResponse(responseCode = "409", description = "Upload incomplete or a chunk is in progress")
+    })
+    public ResponseEntity<Map<String, Object>> completeUpload(@PathVariable String uploadId) {
+        Optional<UploadSession> session = resumableUploadService.getSession(uploadId);
+        if (session.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            String relativePath = resumableUploadService.completeUpload(session.get());
+
+            response.put("message", "Media uploaded successfully");
+            response.put("mediaPath", relativePath);
+            response.put("mediaUrl", mediaUploadService.getMediaUrl(relativePath));
+            response.put("filename", session.get().getOriginalFilename());
+            response.put("category", session.get().getCategory());
+            response.put("mediaType", mediaUploadService.getMediaType(relativePath));
+            response.put("size", session.get().getTotalSize());
+
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalStateException e) {
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        } catch (IOException e) {
+            log.error("Error completing upload {}: {}", uploadId, e.getMessage(), e);
+            response.put("error", "Failed to upload media: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @DeleteMapping("/{uploadId}")
+    @Operation(summary = "Abort upload", description = "Cancel an upload and delete the bytes received so far")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Upload aborted"),
+            @ApiResponse(responseCode = "404", description = "Upload not found or expired"),
+            @ApiResponse(responseCode = "409", description = "A chunk is being written")
+    })
+    public ResponseEntity<Map<String, Object>> abortUpload(@PathVariable String uploadId) throws IOException {
+        Optional<UploadSession> session = resumableUploadService.getSession(uploadId);
+        if (session.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            resumableUploadService.abortUpload(session.get());
+        } catch (IllegalStateException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+        return ResponseEntity.noContent().header(TUS_RESUMABLE, TUS_VERSION).build();
+    }
+}
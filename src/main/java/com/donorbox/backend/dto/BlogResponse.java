@@ -21,6 +21,7 @@ public class BlogResponse {
     private String content;
     private String excerpt;
     private String featuredImage;
+    private String featuredImagePlaceholder;
     private String author;
     private String authorEmail;
     private Blog.BlogStatus status;
@@ -45,6 +46,7 @@ public class BlogResponse {
                 .content(blog.getContent())
                 .excerpt(blog.getExcerpt())
                 .featuredImage(blog.getFeaturedImage())
+                .featuredImagePlaceholder(blog.getFeaturedImagePlaceholder())
                 .author(blog.getAuthor())
                 .authorEmail(blog.getAuthorEmail())
                 .status(blog.getStatus())
@@ -61,6 +63,28 @@ public class BlogResponse {
                 .build();
     }
 
+    // Factory method for summary response from a listing projection
+    public static BlogResponse fromSummary(BlogSummary blog) {
+        return BlogResponse.builder()
+                .id(blog.getId())
+                .title(blog.getTitle())
+                .subtitle(blog.getSubtitle())
+                .slug(blog.getSlug())
+                .excerpt(blog.getExcerpt())
+                .featuredImage(blog.getFeaturedImage())
+                .featuredImagePlaceholder(blog.getFeaturedImagePlaceholder())
+                .author(blog.getAuthor())
+                .status(blog.getStatus())
+                .publishedAt(blog.getPublishedAt())
+                .viewCount(blog.getViewCount())
+                .readingTime(blog.getReadingTime())
+                .tags(blog.getTags())
+                .isFeatured(blog.getIsFeatured())
+                .createdAt(blog.getCreatedAt())
+                .updatedAt(blog.getUpdatedAt())
+                .build();
+    }
+
     // Factory method for summary response (without full content)
     public static BlogResponse summaryFromEntity(Blog blog) {
         return BlogResponse.builder()
@@ -70,6 +94,7 @@ public class BlogResponse {
                 .slug(blog.getSlug())
                 .excerpt(blog.getExcerpt())
                 .featuredImage(blog.getFeaturedImage())
+                .featuredImagePlaceholder(blog.getFeaturedImagePlaceholder())
                 .author(blog.getAuthor())
                 .status(blog.getStatus())
                 .publishedAt(blog.getPublishedAt())
@@ -0,0 +1,27 @@
+package com.donorbox.backend.dto;
+
+import com.donorbox.backend.entity.Blog;
+
+import java.time.LocalDateTime;
+
+/**
+ * Blog columns shown in listings; selected without the content so list queries stay small
+ */
+public interface BlogSummary {
+    Long getId();
+    String getTitle();
+    String getSubtitle();
+    String getSlug();
+    String getExcerpt();
+    String getFeaturedImage();
+    String getFeaturedImagePlaceholder();
+    String getAuthor();
+    Blog.BlogStatus getStatus();
+    LocalDateTime getPublishedAt();
+    Long getViewCount();
+    Integer getReadingTime();
+    String getTags();
+    Boolean getIsFeatured();
+    LocalDateTime getCreatedAt();
+    LocalDateTime getUpdatedAt();
+}
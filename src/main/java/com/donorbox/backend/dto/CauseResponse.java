@@ -24,6 +24,7 @@ public class CauseResponse {
     private BigDecimal targetAmount;
     private BigDecimal currentAmount;
     private java.util.List<String> imageUrls;
+    private String imagePlaceholder;
     private java.util.List<String> videoUrls;
     private Cause.MediaType mediaType;
     private Cause.CauseStatus status;
@@ -55,6 +56,7 @@ public class CauseResponse {
                 .targetAmount(cause.getTargetAmount())
                 .currentAmount(cause.getCurrentAmount())
                 .imageUrls(cause.getImageUrls())
+                .imagePlaceholder(cause.getImagePlaceholder())
                 .videoUrls(cause.getVideoUrls())
                 .mediaType(cause.getMediaType())
                 .status(cause.getStatus())
@@ -89,6 +91,7 @@ public class CauseResponse {
                 .targetAmount(cause.getTargetAmount())
                 .currentAmount(cause.getCurrentAmount())
                 .imageUrls(cause.getImageUrls())
+                .imagePlaceholder(cause.getImagePlaceholder())
                 .videoUrls(cause.getVideoUrls())
                 .mediaType(cause.getMediaType())
                 .status(cause.getStatus())
@@ -0,0 +1,48 @@
+package com.donorbox.backend.dto;
+
+import com.donorbox.backend.entity.MediaObject;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MediaObjectResponse {
+
+    private String mediaPath;
+    private String category;
+    private String contentType;
+    private String mediaType;
+    private Long size;
+    private Integer width;
+    private Integer height;
+    private String placeholder;
+    private String contentHash;
+
+    // Entity the media is attached to, if any
+    private String ownerType;
+    private Long ownerId;
+
+    private LocalDateTime createdAt;
+
+    public static MediaObjectResponse fromEntity(MediaObject mediaObject) {
+        return MediaObjectResponse.builder()
+                .mediaPath(mediaObject.getPath())
+                .category(mediaObject.getCategory())
+                .contentType(mediaObject.getContentType())
+                .mediaType(mediaObject.getMediaType())
+                .size(mediaObject.getSize())
+                .width(mediaObject.getWidth())
+                .height(mediaObject.getHeight())
+                .placeholder(mediaObject.getPlaceholder())
+                .contentHash(mediaObject.getContentHash())
+                .ownerType(mediaObject.getOwnerType())
+                .ownerId(mediaObject.getOwnerId())
+                .createdAt(mediaObject.getCreatedAt())
+                .build();
+    }
+}
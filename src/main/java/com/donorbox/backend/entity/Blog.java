@@ -12,7 +12,10 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "blogs")
+@Table(name = "blogs", indexes = {
+        @Index(name = "idx_blogs_status_published", columnList = "status, published_at"),
+        @Index(name = "idx_blogs_status_featured_published", columnList = "status, is_featured, published_at")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -42,6 +45,10 @@ public class Blog {
     @Column(name = "featured_image")
     private String featuredImage;
 
+    // BlurHash of the featured image
+    @Column(name = "featured_image_placeholder", length = 64)
+    private String featuredImagePlaceholder;
+
     @Column(nullable = false, length = 100)
     private String author;
 
@@ -56,7 +63,8 @@ public class Blog {
     @Column(name = "published_at")
     private LocalDateTime publishedAt;
 
-    @Column(name = "view_count")
+    // Only ever incremented in the database by BlogViewCounter, so saving a blog never overwrites it
+    @Column(name = "view_count", updatable = false)
     @Builder.Default
     private Long viewCount = 0L;
 
@@ -96,10 +104,6 @@ public class Blog {
     }
 
     // Helper methods
-    public void incrementViewCount() {
-        this.viewCount = (this.viewCount != null ? this.viewCount : 0) + 1;
-    }
-
     public void publish() {
         this.status = BlogStatus.PUBLISHED;
         this.publishedAt = DateTimeUtil.getCurrentTimeForDatabase();
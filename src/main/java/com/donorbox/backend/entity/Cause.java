@@ -56,6 +56,10 @@ public class Cause {
     @Column(name = "video_url")
     private String videoUrl;
 
+    // BlurHash of the cover image (the first of imageUrls, else imageUrl)
+    @Column(name = "image_placeholder", length = 64)
+    private String imagePlaceholder;
+
     @ElementCollection
     @CollectionTable(name = "cause_images", joinColumns = @JoinColumn(name = "cause_id"))
     @Column(name = "image_url")
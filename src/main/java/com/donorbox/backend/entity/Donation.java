@@ -78,6 +78,10 @@ public class Donation {
     @Builder.Default
     private Integer followupEmailCount = 0;
 
+    // Claim that last incremented followupEmailCount, so a sweep can tell its rows from a concurrent sweep's
+    @Column(name = "followup_claim_token", length = 36)
+    private String followupClaimToken;
+
     @PrePersist
     protected void onCreate() {
         createdAt = DateTimeUtil.getCurrentTimeForDatabase();
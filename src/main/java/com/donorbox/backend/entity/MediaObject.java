@@ -0,0 +1,82 @@
+package com.donorbox.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import java.time.LocalDateTime;
+import com.donorbox.backend.util.DateTimeUtil;
+
+/**
+ * Logical media path (category/filename, as stored on causes, events, blogs and submissions)
+ * mapped to the content blob that holds its bytes. Also the media catalog: type, dimensions and
+ * owning entity are recorded here so media can be described and listed without touching files.
+ */
+@Entity
+@Table(name = "media_objects", indexes = {
+        @Index(name = "idx_media_objects_content_hash", columnList = "content_hash"),
+        @Index(name = "idx_media_objects_category_created", columnList = "category, created_at"),
+        @Index(name = "idx_media_objects_owner", columnList = "owner_type, owner_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@EqualsAndHashCode(of = "id")
+public class MediaObject {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "path", nullable = false, unique = true, length = 512)
+    private String path;
+
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    @Column(name = "size", nullable = false)
+    private Long size;
+
+    // First path segment, e.g. causes or proof-documents
+    @Column(name = "category", length = 128)
+    private String category;
+
+    @Column(name = "content_type", length = 128)
+    private String contentType;
+
+    // IMAGE, VIDEO or DOCUMENT
+    @Column(name = "media_type", length = 16)
+    private String mediaType;
+
+    @Column(name = "width")
+    private Integer width;
+
+    @Column(name = "height")
+    private Integer height;
+
+    // BlurHash of images, shown by clients until the image itself has loaded
+    @Column(name = "placeholder", length = 64)
+    private String placeholder;
+
+    // Entity the media is attached to (cause, event, blog, submission), once it has been saved
+    @Column(name = "owner_type", length = 32)
+    private String ownerType;
+
+    @Column(name = "owner_id")
+    private Long ownerId;
+
+    // When an entity last claimed the media, checked by the orphaned media collector before deleting
+    @Column(name = "owner_assigned_at")
+    private LocalDateTime ownerAssignedAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = DateTimeUtil.getCurrentTimeForDatabase();
+    }
+}
@@ -0,0 +1,60 @@
+package com.donorbox.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import java.time.LocalDateTime;
+import com.donorbox.backend.util.DateTimeUtil;
+
+/**
+ * A resumable upload in progress. The bytes received so far live in a part file
+ * under {uploadDir}/.resumable/{id}.part until the upload is finalized.
+ */
+@Entity
+@Table(name = "upload_sessions", indexes = {
+        @Index(name = "idx_upload_sessions_updated_at", columnList = "updated_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+public class UploadSession {
+
+    @Id
+    @Column(name = "id", length = 36)
+    private String id;
+
+    @Column(name = "category", nullable = false, length = 64)
+    private String category;
+
+    @Column(name = "original_filename", nullable = false)
+    private String originalFilename;
+
+    @Column(name = "total_size", nullable = false)
+    private Long totalSize;
+
+    @Column(name = "received_size", nullable = false)
+    @Builder.Default
+    private Long receivedSize = 0L;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = DateTimeUtil.getCurrentTimeForDatabase();
+        updatedAt = DateTimeUtil.getCurrentTimeForDatabase();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = DateTimeUtil.getCurrentTimeForDatabase();
+    }
+}
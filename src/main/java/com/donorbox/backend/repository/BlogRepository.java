@@ -1,7 +1,13 @@
 package com.donorbox.backend.repository;
 
+import com.donorbox.backend.dto.BlogSummary;
 import com.donorbox.backend.entity.Blog;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,4 +17,35 @@ import java.util.Optional;
 public interface BlogRepository extends JpaRepository<Blog, Long> {
     Optional<Blog> findBySlug(String slug);
     List<Blog> findByStatus(Blog.BlogStatus status);
+
+    String SUMMARY_COLUMNS = "b.id AS id, b.title AS title, b.subtitle AS subtitle, b.slug AS slug, " +
+            "b.excerpt AS excerpt, b.featuredImage AS featuredImage, " +
+            "b.featuredImagePlaceholder AS featuredImagePlaceholder, b.author AS author, b.status AS status, " +
+            "b.publishedAt AS publishedAt, b.viewCount AS viewCount, b.readingTime AS readingTime, " +
+            "b.tags AS tags, b.isFeatured AS isFeatured, b.createdAt AS createdAt, b.updatedAt AS updatedAt";
+
+    // Listing page of one status, newest first, read in index order from (status, published_at)
+    @Query(value = "SELECT " + SUMMARY_COLUMNS + " FROM Blog b WHERE b.status = :status " +
+                   "ORDER BY b.publishedAt DESC, b.id DESC",
+           countQuery = "SELECT COUNT(b) FROM Blog b WHERE b.status = :status")
+    Page<BlogSummary> findSummariesByStatus(@Param("status") Blog.BlogStatus status, Pageable pageable);
+
+    // Featured listing page, from (status, is_featured, published_at)
+    @Query(value = "SELECT " + SUMMARY_COLUMNS + " FROM Blog b WHERE b.status = :status AND b.isFeatured = true " +
+                   "ORDER BY b.publishedAt DESC, b.id DESC",
+           countQuery = "SELECT COUNT(b) FROM Blog b WHERE b.status = :status AND b.isFeatured = true")
+    Page<BlogSummary> findFeaturedSummariesByStatus(@Param("status") Blog.BlogStatus status, Pageable pageable);
+
+    // Give published posts saved without a publish date their creation date, so listings can order by publishedAt alone
+    @Modifying
+    @Query("UPDATE Blog b SET b.publishedAt = b.createdAt WHERE b.status = :status AND b.publishedAt IS NULL")
+    int backfillPublishedAt(@Param("status") Blog.BlogStatus status);
+
+    // Featured images, for the orphaned media collector
+    @Query("SELECT b.featuredImage FROM Blog b WHERE b.featuredImage IS NOT NULL")
+    List<String> findMediaReferences();
+
+    // Blog bodies, scanned for embedded media URLs by the orphaned media collector
+    @Query("SELECT b.content FROM Blog b")
+    List<String> findAllContents();
 }
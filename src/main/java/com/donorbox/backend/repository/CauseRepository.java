@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 @Repository
 public interface CauseRepository extends JpaRepository<Cause, Long> {
@@ -14,4 +15,11 @@ public interface CauseRepository extends JpaRepository<Cause, Long> {
            "FROM Donation d " +
            "WHERE d.cause.id = :causeId AND d.status = 'SUCCESS'")
     BigDecimal calculateTotalDonationsForCause(Long causeId);
+
+    // Every media path a cause references, for the orphaned media collector
+    @Query("SELECT c.imageUrl FROM Cause c WHERE c.imageUrl IS NOT NULL " +
+           "UNION SELECT c.videoUrl FROM Cause c WHERE c.videoUrl IS NOT NULL " +
+           "UNION SELECT i FROM Cause c JOIN c.imageUrls i " +
+           "UNION SELECT v FROM Cause c JOIN c.videoUrls v")
+    List<String> findMediaReferences();
 }
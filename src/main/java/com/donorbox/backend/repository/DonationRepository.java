@@ -1,7 +1,9 @@
 package com.donorbox.backend.repository;
 
 import com.donorbox.backend.entity.Donation;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -28,4 +30,31 @@ public interface DonationRepository extends JpaRepository<Donation, Long> {
     // Method for limited follow-up emails (max 2 follow-ups)
     List<Donation> findByStatusAndCreatedAtBeforeAndFollowupEmailCountLessThan(
         Donation.DonationStatus status, LocalDateTime dateTime, Integer maxCount);
+
+    // Keyset-paged batch of follow-up candidates (cause fetched in the same query)
+    @Query("SELECT d FROM Donation d LEFT JOIN FETCH d.cause " +
+           "WHERE d.status = :status AND d.createdAt < :cutoff " +
+           "AND COALESCE(d.followupEmailCount, 0) < :maxCount AND d.id > :afterId " +
+           "ORDER BY d.id ASC")
+    List<Donation> findFollowupBatch(@Param("status") Donation.DonationStatus status,
+                                     @Param("cutoff") LocalDateTime cutoff,
+                                     @Param("maxCount") int maxCount,
+                                     @Param("afterId") Long afterId,
+                                     Pageable pageable);
+
+    // Claim donations for follow-up in one statement; the expected count makes it a compare-and-set,
+    // and the token marks the rows this claim updated
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Donation d SET d.followupEmailCount = :expectedCount + 1, d.followupClaimToken = :token, " +
+           "d.updatedAt = :now " +
+           "WHERE d.id IN :ids AND d.status = :status AND COALESCE(d.followupEmailCount, 0) = :expectedCount")
+    int claimFollowupBatch(@Param("ids") List<Long> ids,
+                           @Param("status") Donation.DonationStatus status,
+                           @Param("expectedCount") int expectedCount,
+                           @Param("token") String token,
+                           @Param("now") LocalDateTime now);
+
+    // Rows a partially applied claim updated; they stay locked by its transaction, so no other claim re-stamps them
+    @Query("SELECT d.id FROM Donation d WHERE d.id IN :ids AND d.followupClaimToken = :token")
+    List<Long> findClaimedIds(@Param("ids") List<Long> ids, @Param("token") String token);
 }
@@ -2,9 +2,14 @@ package com.donorbox.backend.repository;
 
 import com.donorbox.backend.entity.Event;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface EventRepository extends JpaRepository<Event, Long> {
-    // Additional query methods if needed
+    // Every media path an event references, for the orphaned media collector
+    @Query("SELECT e.imageUrl FROM Event e WHERE e.imageUrl IS NOT NULL")
+    List<String> findMediaReferences();
 }
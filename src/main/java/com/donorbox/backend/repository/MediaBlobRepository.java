@@ -0,0 +1,20 @@
+package com.donorbox.backend.repository;
+
+import com.donorbox.backend.entity.MediaBlob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface MediaBlobRepository extends JpaRepository<MediaBlob, String> {
+
+    // Row lock so reference counting and blob file creation/removal are serialized per hash
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM MediaBlob b WHERE b.hash = :hash")
+    Optional<MediaBlob> findByHashForUpdate(@Param("hash") String hash);
+}
@@ -0,0 +1,52 @@
+package com.donorbox.backend.repository;
+
+import com.donorbox.backend.entity.MediaObject;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface MediaObjectRepository extends JpaRepository<MediaObject, Long> {
+    Optional<MediaObject> findByPath(String path);
+
+    boolean existsByPath(String path);
+
+    // Every logical path, for building the in-memory media index
+    @Query("SELECT m.path FROM MediaObject m")
+    List<String> findAllPaths();
+
+    // Paths stored before a cutoff, candidates for the orphaned media collector
+    @Query("SELECT m.path FROM MediaObject m WHERE m.createdAt < :cutoff")
+    List<String> findPathsCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    // Catalog listings, served from the category and owner indexes
+    Page<MediaObject> findByCategory(String category, Pageable pageable);
+
+    Page<MediaObject> findByOwnerTypeAndOwnerId(String ownerType, Long ownerId, Pageable pageable);
+
+    // Attach media to the entity that references it
+    @Modifying
+    @Query("UPDATE MediaObject m SET m.ownerType = :ownerType, m.ownerId = :ownerId, m.ownerAssignedAt = :now " +
+           "WHERE m.path IN :paths")
+    int assignOwner(@Param("ownerType") String ownerType, @Param("ownerId") Long ownerId,
+                    @Param("paths") Collection<String> paths, @Param("now") LocalDateTime now);
+
+    // Whether an entity claimed the path since a time, served from the unique path index
+    @Query("SELECT COUNT(m) > 0 FROM MediaObject m WHERE m.path = :path AND m.ownerAssignedAt >= :since")
+    boolean isOwnerAssignedSince(@Param("path") String path, @Param("since") LocalDateTime since);
+
+    // Fill the category of rows recorded before the catalog columns existed
+    @Modifying
+    @Query("UPDATE MediaObject m SET m.category = SUBSTRING(m.path, 1, LOCATE('/', m.path) - 1) " +
+           "WHERE m.category IS NULL AND LOCATE('/', m.path) > 1")
+    int backfillCategories();
+}
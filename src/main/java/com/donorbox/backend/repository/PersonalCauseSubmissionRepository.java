@@ -22,4 +22,13 @@ public interface PersonalCauseSubmissionRepository extends JpaRepository<Persona
     
     @Query("SELECT p FROM PersonalCauseSubmission p ORDER BY p.createdAt DESC")
     List<PersonalCauseSubmission> findAllOrderByCreatedAtDesc();
+
+    // Every media path a submission references, for the orphaned media collector
+    @Query("SELECT p.imageUrl FROM PersonalCauseSubmission p WHERE p.imageUrl IS NOT NULL " +
+           "UNION SELECT p.videoUrl FROM PersonalCauseSubmission p WHERE p.videoUrl IS NOT NULL " +
+           "UNION SELECT p.proofDocumentUrl FROM PersonalCauseSubmission p WHERE p.proofDocumentUrl IS NOT NULL " +
+           "UNION SELECT i FROM PersonalCauseSubmission p JOIN p.imageUrls i " +
+           "UNION SELECT v FROM PersonalCauseSubmission p JOIN p.videoUrls v " +
+           "UNION SELECT d FROM PersonalCauseSubmission p JOIN p.proofDocumentUrls d")
+    List<String> findMediaReferences();
 }
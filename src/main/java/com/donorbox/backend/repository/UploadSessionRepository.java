@@ -0,0 +1,25 @@
+package com.donorbox.backend.repository;
+
+import com.donorbox.backend.entity.UploadSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+
+    // Sessions with no chunk received since the cutoff (abandoned uploads)
+    List<UploadSession> findByUpdatedAtBefore(LocalDateTime cutoff);
+
+    // Record progress of an existing session only; unlike save() this never re-creates a removed one
+    @Modifying
+    @Transactional
+    @Query("UPDATE UploadSession s SET s.receivedSize = :received, s.updatedAt = :now WHERE s.id = :id")
+    int updateProgress(@Param("id") String id, @Param("received") long received, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,84 @@
+package com.donorbox.backend.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Storage for uploaded content, addressed by slash-separated keys (e.g. blobs/ab/cd/{sha256}).
+ * The local implementation keeps files under the upload directory; the S3 implementation
+ * lets several application nodes share one bucket.
+ */
+public interface BlobStore {
+
+    /**
+     * Store a staged file under a key, replacing any existing content
+     * @param key The blob key
+     * @param source A complete file; it may be moved into place, so callers must not reuse it
+     * @param contentType Content type to record with the blob, or null
+     */
+    void put(String key, Path source, String contentType) throws IOException;
+
+    /**
+     * Store content of a known length streamed from the caller
+     * @param key The blob key
+     * @param in The content (not closed by this method)
+     * @param size Exact number of bytes that will be read from the stream
+     * @param contentType Content type to record with the blob, or null
+     */
+    void put(String key, InputStream in, long size, String contentType) throws IOException;
+
+    /**
+     * Open a blob for reading
+     * @throws java.nio.file.NoSuchFileException if the blob does not exist
+     */
+    InputStream get(String key) throws IOException;
+
+    /**
+     * Open the inclusive byte range [start, end] of a blob for reading
+     * @throws java.nio.file.NoSuchFileException if the blob does not exist
+     */
+    InputStream get(String key, long start, long end) throws IOException;
+
+    /**
+     * Size and modification time of a blob
+     * @return the blob's metadata, or empty if it does not exist
+     */
+    Optional<BlobInfo> stat(String key) throws IOException;
+
+    /**
+     * Delete a blob
+     * @return true if the blob existed
+     */
+    boolean delete(String key) throws IOException;
+
+    /**
+     * Time-limited URL from which a client can download the blob directly, bypassing the application
+     * @param key The blob key
+     * @param ttl How long the URL stays valid
+     * @param contentType Content-Type the download should be served with
+     * @param contentDisposition Content-Disposition the download should be served with
+     * @return the URL, or empty if the store cannot serve clients directly
+     */
+    Optional<URI> presignedGetUrl(String key, Duration ttl, String contentType, String contentDisposition);
+
+    /**
+     * The blob's file on local disk, for links and zero-copy transfer
+     * @return the path, or empty if the store is not on the local filesystem
+     */
+    Optional<Path> localPath(String key);
+
+    @Getter
+    @AllArgsConstructor
+    class BlobInfo {
+        private final long size;
+        private final Instant lastModified;
+    }
+}
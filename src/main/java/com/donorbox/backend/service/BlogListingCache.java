@@ -0,0 +1,79 @@
+package com.donorbox.backend.service;
+
+import com.donorbox.backend.dto.BlogResponse;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Caches pages of the public blog listings. Every blog write clears it, right away and again after
+ * its transaction commits, so a listing read in between cannot keep the old rows. Entries also
+ * expire after a short TTL, which bounds staleness of view counts and of writes made on other nodes.
+ */
+@Component
+@Slf4j
+public class BlogListingCache {
+
+    @Value("${app.blog.list-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.blog.list-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${app.blog.list-cache.max-entries:64}")
+    private int maxEntries;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Cached listing for a key, loading it on a miss
+     * @param key Listing and page, e.g. "published:0:100", or "published:all" for the whole listing
+     * @param loader Loads the listing from the database
+     */
+    public Page<BlogResponse> get(String key, Supplier<Page<BlogResponse>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt > now) {
+            return entry.blogs;
+        }
+        Page<BlogResponse> blogs = loader.get();
+        if (entries.size() >= maxEntries) {
+            // Only a handful of pages are ever hot; starting over is cheaper than tracking recency
+            entries.clear();
+        }
+        entries.put(key, new Entry(blogs, now + ttlSeconds * 1000));
+        return blogs;
+    }
+
+    /**
+     * Drop all cached listings now and once more when the current transaction commits
+     */
+    public void invalidate() {
+        entries.clear();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    entries.clear();
+                }
+            });
+        }
+    }
+
+    @AllArgsConstructor
+    private static class Entry {
+        private final Page<BlogResponse> blogs;
+        private final long expiresAt;
+    }
+}
@@ -7,6 +7,8 @@ import com.donorbox.backend.repository.BlogRepository;
 import com.donorbox.backend.util.DateTimeUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -16,18 +18,30 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class BlogService {
 
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final BlogRepository blogRepository;
     private final ImageUploadService imageUploadService;
+    private final MediaCatalogService mediaCatalogService;
+    private final MediaDeletionService mediaDeletionService;
+    private final BlogViewCounter blogViewCounter;
+    private final BlogListingCache blogListingCache;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfill() {
+        int updated = blogRepository.backfillPublishedAt(Blog.BlogStatus.PUBLISHED);
+        if (updated > 0) {
+            log.info("Set the publish date of {} published blogs to their creation date", updated);
+        }
+    }
 
     @Transactional
     public Blog createBlog(BlogRequest request) {
@@ -59,7 +73,10 @@ public class BlogService {
             blog.setPublishedAt(DateTimeUtil.getCurrentTimeForDatabase());
         }
 
+        blog.setFeaturedImagePlaceholder(mediaCatalogService.placeholderOf(blog.getFeaturedImage()));
+        blogListingCache.invalidate();
         Blog savedBlog = blogRepository.save(blog);
+        mediaCatalogService.assignOwner("blog", savedBlog.getId(), savedBlog.getFeaturedImage());
         log.info("Blog created with ID: {} and slug: {}", savedBlog.getId(), savedBlog.getSlug());
         return savedBlog;
     }
@@ -106,7 +123,10 @@ public class BlogService {
             existingBlog.setPublishedAt(null);
         }
 
+        existingBlog.setFeaturedImagePlaceholder(mediaCatalogService.placeholderOf(existingBlog.getFeaturedImage()));
+        blogListingCache.invalidate();
         Blog updatedBlog = blogRepository.save(existingBlog);
+        mediaCatalogService.assignOwner("blog", updatedBlog.getId(), updatedBlog.getFeaturedImage());
         log.info("Blog updated with ID: {}", updatedBlog.getId());
         return updatedBlog;
     }
@@ -116,6 +136,8 @@ public class BlogService {
         Blog blog = blogRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Blog not found with id: " + id));
         
+        blogListingCache.invalidate();
+        
         blogRepository.delete(blog);
         log.info("Blog deleted with ID: {}", id);
     }
@@ -126,52 +148,46 @@ public class BlogService {
                 .orElseThrow(() -> new IllegalArgumentException("Blog not found with id: " + id));
     }
 
-    @Transactional
+    // A failed upload must not commit: the old image would be deleted after it
+    @Transactional(rollbackFor = IOException.class)
     public BlogResponse updateBlogWithImage(Long id, MultipartFile image) throws IOException {
         Blog blog = getBlogById(id);
         
         if (image != null && !image.isEmpty()) {
-            // Delete old image if it exists
-            if (blog.getFeaturedImage() != null && !blog.getFeaturedImage().trim().isEmpty()) {
-                boolean deleted = imageUploadService.deleteImage(blog.getFeaturedImage());
-                if (deleted) {
-                    log.info("Successfully deleted old featured image: {}", blog.getFeaturedImage());
-                } else {
-                    log.warn("Failed to delete old featured image: {}", blog.getFeaturedImage());
-                }
-            }
+            String oldImagePath = blog.getFeaturedImage();
             
             // Upload new image
             String newImagePath = imageUploadService.uploadImage(image, "blogs");
             blog.setFeaturedImage(newImagePath);
             log.info("Successfully uploaded new featured image: {}", newImagePath);
+            
+            // Delete old image once the new one is saved
+            mediaDeletionService.deleteAfterCommit(oldImagePath);
         }
         
+        blog.setFeaturedImagePlaceholder(mediaCatalogService.placeholderOf(blog.getFeaturedImage()));
+        blogListingCache.invalidate();
         Blog updatedBlog = blogRepository.save(blog);
+        mediaCatalogService.assignOwner("blog", updatedBlog.getId(), updatedBlog.getFeaturedImage());
         log.info("Blog updated with new featured image for ID: {}", updatedBlog.getId());
         return BlogResponse.fromEntity(updatedBlog);
     }
 
-    @Transactional
+    @Transactional(rollbackFor = IOException.class)
     public BlogResponse updateBlogWithImageAndContent(Long id, BlogRequest request, MultipartFile image) throws IOException {
         Blog existingBlog = getBlogById(id);
         
         // Handle image upload/replacement if provided
         if (image != null && !image.isEmpty()) {
-            // Delete old image if it exists
-            if (existingBlog.getFeaturedImage() != null && !existingBlog.getFeaturedImage().trim().isEmpty()) {
-                boolean deleted = imageUploadService.deleteImage(existingBlog.getFeaturedImage());
-                if (deleted) {
-                    log.info("Successfully deleted old featured image: {}", existingBlog.getFeaturedImage());
-                } else {
-                    log.warn("Failed to delete old featured image: {}", existingBlog.getFeaturedImage());
-                }
-            }
+            String oldImagePath = existingBlog.getFeaturedImage();
             
             // Upload new image
             String newImagePath = imageUploadService.uploadImage(image, "blogs");
             existingBlog.setFeaturedImage(newImagePath);
             log.info("Successfully uploaded new featured image: {}", newImagePath);
+            
+            // Delete old image once the new one is saved
+            mediaDeletionService.deleteAfterCommit(oldImagePath);
         }
         
         // Update other fields from request
@@ -211,48 +227,60 @@ public class BlogService {
             }
         }
         
+        existingBlog.setFeaturedImagePlaceholder(mediaCatalogService.placeholderOf(existingBlog.getFeaturedImage()));
+        blogListingCache.invalidate();
         Blog updatedBlog = blogRepository.save(existingBlog);
+        mediaCatalogService.assignOwner("blog", updatedBlog.getId(), updatedBlog.getFeaturedImage());
         log.info("Blog updated with content and image for ID: {}", updatedBlog.getId());
         return BlogResponse.fromEntity(updatedBlog);
     }
 
-    @Transactional
+    /**
+     * Get a blog by slug. Views are counted in memory and written to the database in batches,
+     * so this stays a read-only transaction.
+     * @param slug The blog slug
+     * @param incrementViews Whether to count this as a view
+     * @throws IllegalArgumentException if no blog has the slug
+     */
+    @Transactional(readOnly = true)
     public Blog getBlogBySlug(String slug, boolean incrementViews) {
         Blog blog = blogRepository.findBySlug(slug)
                 .orElseThrow(() -> new IllegalArgumentException("Blog not found with slug: " + slug));
         
         if (incrementViews) {
-            blog.incrementViewCount();
-            blogRepository.save(blog);
+            blogViewCounter.record(blog.getId());
         }
         
         return blog;
     }
 
+    /**
+     * View count of a blog including views not yet written to the database
+     */
+    public long getViewCount(Blog blog) {
+        long stored = blog.getViewCount() != null ? blog.getViewCount() : 0;
+        return stored + blogViewCounter.pending(blog.getId());
+    }
+
     @Transactional(readOnly = true)
     public List<Blog> getAllBlogs() {
         return blogRepository.findAll(Sort.by(Sort.Direction.DESC, "createdAt"));
     }
 
-    @Transactional(readOnly = true)
-    public List<Blog> getPublishedBlogs() {
-        try {
-            List<Blog> publishedBlogs = blogRepository.findByStatus(Blog.BlogStatus.PUBLISHED);
-            log.info("Found {} published blogs", publishedBlogs.size());
-            
-            return publishedBlogs.stream()
-                    .sorted((b1, b2) -> {
-                        // Handle null publishedAt values gracefully
-                        LocalDateTime date1 = b1.getPublishedAt() != null ? b1.getPublishedAt() : b1.getCreatedAt();
-                        LocalDateTime date2 = b2.getPublishedAt() != null ? b2.getPublishedAt() : b2.getCreatedAt();
-                        return date2.compareTo(date1); // Most recent first
-                    })
-                    .collect(Collectors.toList());
-        } catch (Exception e) {
-            log.error("Error fetching published blogs", e);
-            // Return empty list instead of throwing exception to prevent 401 errors
-            return new ArrayList<>();
-        }
+    /**
+     * Page of published blogs, newest first, without their content. Served from the listing cache.
+     * @param page Zero-based page number
+     * @param size Page size, capped at {@link #MAX_PAGE_SIZE}
+     */
+    public Page<BlogResponse> getPublishedBlogSummaries(int page, int size) {
+        return publishedSummaries(listingPage(page, size));
+    }
+
+    /**
+     * All published blogs, newest first, without their content. Served from the listing cache.
+     */
+    public Page<BlogResponse> getPublishedBlogSummaries() {
+        return publishedSummaries(Pageable.unpaged());
     }
 
     @Transactional(readOnly = true)
@@ -262,30 +290,50 @@ public class BlogService {
         return blogRepository.findAll(pageable);
     }
 
-    @Transactional(readOnly = true)
-    public List<Blog> getFeaturedBlogs() {
-        try {
-            return blogRepository.findAll().stream()
-                    .filter(blog -> Blog.BlogStatus.PUBLISHED.equals(blog.getStatus()) && 
-                                   Boolean.TRUE.equals(blog.getIsFeatured()))
-                    .sorted((b1, b2) -> {
-                        // Handle null publishedAt values gracefully
-                        LocalDateTime date1 = b1.getPublishedAt() != null ? b1.getPublishedAt() : b1.getCreatedAt();
-                        LocalDateTime date2 = b2.getPublishedAt() != null ? b2.getPublishedAt() : b2.getCreatedAt();
-                        return date2.compareTo(date1); // Most recent first
-                    })
-                    .collect(Collectors.toList());
-        } catch (Exception e) {
-            log.error("Error fetching featured blogs", e);
-            // Return empty list instead of throwing exception
-            return new ArrayList<>();
-        }
+    /**
+     * Page of published featured blogs, newest first, without their content. Served from the
+     * listing cache.
+     * @param page Zero-based page number
+     * @param size Page size, capped at {@link #MAX_PAGE_SIZE}
+     */
+    public Page<BlogResponse> getFeaturedBlogSummaries(int page, int size) {
+        return featuredSummaries(listingPage(page, size));
+    }
+
+    /**
+     * All published featured blogs, newest first, without their content. Served from the
+     * listing cache.
+     */
+    public Page<BlogResponse> getFeaturedBlogSummaries() {
+        return featuredSummaries(Pageable.unpaged());
+    }
+
+    private Page<BlogResponse> publishedSummaries(Pageable pageable) {
+        return blogListingCache.get("published:" + listingKey(pageable), () ->
+                blogRepository.findSummariesByStatus(Blog.BlogStatus.PUBLISHED, pageable)
+                        .map(BlogResponse::fromSummary));
+    }
+
+    private Page<BlogResponse> featuredSummaries(Pageable pageable) {
+        return blogListingCache.get("featured:" + listingKey(pageable), () ->
+                blogRepository.findFeaturedSummariesByStatus(Blog.BlogStatus.PUBLISHED, pageable)
+                        .map(BlogResponse::fromSummary));
+    }
+
+    // Ordering is part of the listing queries, so the page request carries none
+    private static Pageable listingPage(int page, int size) {
+        return PageRequest.of(Math.max(0, page), Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+    }
+
+    private static String listingKey(Pageable pageable) {
+        return pageable.isPaged() ? pageable.getPageNumber() + ":" + pageable.getPageSize() : "all";
     }
 
     @Transactional
     public Blog publishBlog(Long id) {
         Blog blog = getBlogById(id);
         blog.publish();
+        blogListingCache.invalidate();
         Blog publishedBlog = blogRepository.save(blog);
         log.info("Blog published with ID: {}", id);
         return publishedBlog;
@@ -295,6 +343,7 @@ public class BlogService {
     public Blog unpublishBlog(Long id) {
         Blog blog = getBlogById(id);
         blog.unpublish();
+        blogListingCache.invalidate();
         Blog unpublishedBlog = blogRepository.save(blog);
         log.info("Blog unpublished with ID: {}", id);
         return unpublishedBlog;
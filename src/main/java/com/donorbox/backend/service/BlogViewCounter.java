@@ -0,0 +1,84 @@
+package com.donorbox.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts blog views in memory and adds them to blogs.view_count periodically, so that reading a
+ * post is not a write. Each blog has a striped counter that concurrent readers increment without
+ * contention; a flush drains all counters into one batched UPDATE. Views not yet flushed are
+ * lost if the process dies, which is acceptable for a popularity figure.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BlogViewCounter {
+
+    private static final String ADD_VIEWS_SQL =
+            "UPDATE blogs SET view_count = COALESCE(view_count, 0) + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Counters stay in place once created; there is one per blog that has been viewed
+    private final Map<Long, LongAdder> pendingViews = new ConcurrentHashMap<>();
+
+    /**
+     * Record one view of a blog
+     * @param blogId The blog id
+     */
+    public void record(Long blogId) {
+        pendingViews.computeIfAbsent(blogId, id -> new LongAdder()).increment();
+    }
+
+    /**
+     * Views of a blog recorded since the last flush
+     * @param blogId The blog id
+     */
+    public long pending(Long blogId) {
+        LongAdder views = pendingViews.get(blogId);
+        return views != null ? views.sum() : 0;
+    }
+
+    /**
+     * Add the recorded views to the database in one batch. If the update fails, the views are
+     * put back and retried on the next flush.
+     */
+    @Scheduled(fixedDelayString = "${app.blog.views.flush-interval-ms:10000}")
+    public synchronized void flush() {
+        List<Object[]> batch = new ArrayList<>();
+        pendingViews.forEach((blogId, views) -> {
+            long count = views.sumThenReset();
+            if (count > 0) {
+                batch.add(new Object[] {count, blogId});
+            }
+        });
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(ADD_VIEWS_SQL, batch);
+            log.debug("Flushed views of {} blogs", batch.size());
+        } catch (DataAccessException e) {
+            log.warn("Could not flush views of {} blogs, retrying later: {}", batch.size(), e.getMessage());
+            for (Object[] row : batch) {
+                pendingViews.computeIfAbsent((Long) row[1], id -> new LongAdder()).add((Long) row[0]);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
@@ -13,8 +13,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class CauseService {
     private final CauseRepository causeRepository;
-    private final ImageUploadService imageUploadService;
-    private final MediaUploadService mediaUploadService;
+    private final MediaCatalogService mediaCatalogService;
+    private final MediaDeletionService mediaDeletionService;
     @Transactional(readOnly = true)
     public List<CauseResponse> getAllCauses() {
         List<Cause> causes = causeRepository.findAll();
@@ -48,7 +48,9 @@ public class CauseService {
     @Transactional
     public CauseResponse createCause(CauseRequest request) {
         Cause cause = request.toEntity();
+        applyPlaceholder(cause);
         Cause savedCause = causeRepository.save(cause);
+        catalogMedia(savedCause);
         return CauseResponse.fromEntity(savedCause);
     }
 
@@ -57,7 +59,9 @@ public class CauseService {
         Cause cause = causeRepository.findById(id)
             .orElseThrow(() -> new IllegalArgumentException("Cause not found"));
         request.updateEntity(cause);
+        applyPlaceholder(cause);
         Cause updatedCause = causeRepository.save(cause);
+        catalogMedia(updatedCause);
         return CauseResponse.fromEntity(updatedCause);
     }
 
@@ -67,13 +71,8 @@ public class CauseService {
         Cause cause = causeRepository.findById(id)
             .orElseThrow(() -> new IllegalArgumentException("Cause not found"));
         
-        // Delete associated media if exists
-        if (cause.getImageUrl() != null && !cause.getImageUrl().trim().isEmpty()) {
-            mediaUploadService.deleteMedia(cause.getImageUrl());
-        }
-        if (cause.getVideoUrl() != null && !cause.getVideoUrl().trim().isEmpty()) {
-            mediaUploadService.deleteMedia(cause.getVideoUrl());
-        }
+        // Delete associated media once the cause is gone
+        mediaDeletionService.deleteAfterCommit(cause.getImageUrl(), cause.getVideoUrl());
 
         // Delete the cause from database
         causeRepository.deleteById(id);
@@ -82,7 +81,10 @@ public class CauseService {
     // Backward compatibility methods for direct entity operations
     @Transactional
     public Cause createCause(Cause cause) {
-        return causeRepository.save(cause);
+        applyPlaceholder(cause);
+        Cause savedCause = causeRepository.save(cause);
+        catalogMedia(savedCause);
+        return savedCause;
     }
 
     @Transactional
@@ -91,7 +93,20 @@ public class CauseService {
             throw new IllegalArgumentException("Cause not found");
         }
         cause.setId(id);
-        return causeRepository.save(cause);
+        applyPlaceholder(cause);
+        Cause updatedCause = causeRepository.save(cause);
+        catalogMedia(updatedCause);
+        return updatedCause;
     }
-}
 
+    private void applyPlaceholder(Cause cause) {
+        String cover = cause.getImageUrls() != null && !cause.getImageUrls().isEmpty()
+                ? cause.getImageUrls().get(0) : cause.getImageUrl();
+        cause.setImagePlaceholder(mediaCatalogService.placeholderOf(cover));
+    }
+
+    private void catalogMedia(Cause cause) {
+        mediaCatalogService.assignOwner("cause", cause.getId(),
+                cause.getImageUrl(), cause.getVideoUrl(), cause.getImageUrls(), cause.getVideoUrls());
+    }
+}
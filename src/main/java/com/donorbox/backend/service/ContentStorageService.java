@@ -0,0 +1,575 @@
+package com.donorbox.backend.service;
+
+import com.donorbox.backend.entity.MediaBlob;
+import com.donorbox.backend.entity.MediaObject;
+import com.donorbox.backend.repository.MediaBlobRepository;
+import com.donorbox.backend.repository.MediaObjectRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.donorbox.backend.util.BlurHash;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Content-addressed storage for uploads. Each distinct content is stored once in the
+ * {@link BlobStore} under blobs/{ab}/{cd}/{sha256}. With the local store, the logical path
+ * (category/filename) that the rest of the application stores and serves is a relative
+ * symbolic link to that blob; with a remote store it is resolved through media_objects.
+ * Blob reference counts and the logical path mapping are kept in media_blobs / media_objects.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ContentStorageService {
+
+    private static final String BLOBS_DIR = "blobs";
+    private static final String STAGING_DIR = ".staging";
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+    private static final int MAX_COMMIT_ATTEMPTS = 3;
+    // Placeholders are computed from an image subsampled to about this many pixels on its short side
+    private static final int PLACEHOLDER_SAMPLE_SIZE = 32;
+    private static final String GZIP_SUFFIX = ".gz";
+
+    private final MediaBlobRepository mediaBlobRepository;
+    private final MediaObjectRepository mediaObjectRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BlobStore blobStore;
+    private final HotMediaCache hotMediaCache;
+    private final MediaIndex mediaIndex;
+    private final UploadPathResolver uploadPathResolver;
+    private final MediaTypeRegistry mediaTypeRegistry;
+
+    @Value("${app.upload.dir:uploads}")
+    private String uploadDir;
+
+    @Value("${app.serving.precompressed.enabled:true}")
+    private boolean precompressedEnabled;
+
+    // Smaller files gain too little from compression to be worth a second copy
+    @Value("${app.serving.precompressed.min-size:1024}")
+    private long precompressedMinSize;
+
+    // Blob cleanup may run from afterCommit, where the finished transaction is still bound to the thread
+    private TransactionTemplate cleanupTransactionTemplate;
+
+    @PostConstruct
+    void init() {
+        cleanupTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        cleanupTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Store content under a logical path. The stream is hashed while it is written to a
+     * staging file; identical content already in the store is reused instead of kept twice.
+     * @param in The content to store (not closed by this method)
+     * @param relativePath The logical path (category/filename)
+     * @return hash and size of the stored content
+     * @throws IOException if the content cannot be written
+     */
+    public StoredContent store(InputStream in, String relativePath) throws IOException {
+        Path staging = Files.createDirectories(root().resolve(STAGING_DIR));
+        // Not createTempFile: its owner-only permissions would carry over to the blob
+        Path temp = staging.resolve("upload-" + UUID.randomUUID() + ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            long size;
+            try (OutputStream out = Files.newOutputStream(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                size = new DigestInputStream(in, digest).transferTo(out);
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            boolean deduplicated = commit(temp, describe(temp, relativePath, hash, size));
+            mediaIndex.add(relativePath);
+            writeGzipSidecar(hash, relativePath, size);
+
+            if (deduplicated) {
+                log.info("Stored {} as existing blob {} ({} bytes saved)", relativePath, hash, size);
+            }
+            return new StoredContent(hash, size, deduplicated);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Remove a logical path. The blob is deleted once no logical path references it.
+     * Files stored before content addressing are simply deleted.
+     * @param relativePath The logical path (category/filename)
+     * @return true if the logical path existed
+     * @throws IOException if the file cannot be deleted
+     */
+    public boolean release(String relativePath) throws IOException {
+        return reclaim(relativePath) >= 0;
+    }
+
+    /**
+     * Remove a logical path like {@link #release(String)}, measuring the space it frees
+     * @param relativePath The logical path (category/filename)
+     * @return bytes freed in the store (0 if its blob is still referenced elsewhere), or -1 if
+     *         the logical path did not exist
+     * @throws IOException if the file cannot be deleted
+     */
+    public long reclaim(String relativePath) throws IOException {
+        try {
+            Long freed = transactionTemplate.execute(status -> {
+                try {
+                    Optional<MediaObject> mediaObject = mediaObjectRepository.findByPath(relativePath);
+                    long blobBytes = mediaObject.map(this::dereference).orElse(0L);
+                    // Files stored before content addressing are plain files rather than blob links
+                    Path file = uploadPathResolver.resolve(relativePath);
+                    long plainBytes = Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS) ? Files.size(file) : 0;
+                    boolean deleted = deleteLocalFiles(relativePath);
+                    if (!deleted && mediaObject.isEmpty()) {
+                        return -1L;
+                    }
+                    return blobBytes + plainBytes;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            mediaIndex.remove(relativePath);
+            return freed != null ? freed : -1;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Look up the stored content behind a logical path
+     * @param relativePath The logical path (category/filename)
+     * @return hash, size and creation time, or empty for unknown or pre-content-addressing files
+     */
+    public Optional<MediaObject> findObject(String relativePath) {
+        return mediaObjectRepository.findByPath(relativePath);
+    }
+
+    /**
+     * Open the content behind a logical path, from the upload directory or the blob store
+     * @param relativePath The logical path (category/filename)
+     * @return a stream over the content; the caller closes it
+     * @throws NoSuchFileException if the path does not exist
+     */
+    public InputStream open(String relativePath) throws IOException {
+        Path file = uploadPathResolver.resolve(relativePath);
+        if (Files.isRegularFile(file)) {
+            return Files.newInputStream(file);
+        }
+        Optional<MediaObject> stored = mediaObjectRepository.findByPath(relativePath);
+        if (stored.isPresent()) {
+            return blobStore.get(blobKey(stored.get().getContentHash()));
+        }
+        throw new NoSuchFileException(relativePath);
+    }
+
+    /**
+     * Check whether a logical path exists. Answered from the catalog; only files stored before
+     * content addressing, which have no catalog entry, are looked up on disk.
+     * @param relativePath The logical path (category/filename)
+     */
+    public boolean exists(String relativePath) {
+        if (mediaObjectRepository.existsByPath(relativePath)) {
+            return true;
+        }
+        return !mediaIndex.isKnownMissing(relativePath) && Files.exists(uploadPathResolver.resolve(relativePath));
+    }
+
+    /**
+     * Content hash of a stored file, read from its blob link without touching the content
+     * @return the SHA-256 hex digest, or null if the file is not content-addressed
+     */
+    public String getContentHash(Path file) {
+        if (!Files.isSymbolicLink(file)) {
+            return null;
+        }
+        try {
+            String target = Files.readSymbolicLink(file).getFileName().toString();
+            return SHA256_HEX.matcher(target).matches() ? target : null;
+        } catch (IOException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Upload the blob, then record the reference in a short transaction. The upload happens
+     * first and outside any transaction: the content-addressed put is idempotent, and a slow
+     * transfer to a remote store must not hold a pooled connection and the blob row lock.
+     */
+    private boolean commit(Path temp, MediaObject entry) throws IOException {
+        String relativePath = entry.getPath();
+        String blobKey = blobKey(entry.getContentHash());
+        boolean uploaded = false;
+        try {
+            for (int attempt = 1; ; attempt++) {
+                if (blobStore.stat(blobKey).isEmpty()) {
+                    if (!Files.exists(temp)) {
+                        // Our copy was moved into the store and then removed along with its last reference
+                        throw new IOException("Stored content for " + relativePath + " was removed concurrently, please retry");
+                    }
+                    blobStore.put(blobKey, temp, null);
+                    uploaded = true;
+                }
+                try {
+                    Boolean deduplicated = transactionTemplate.execute(status -> {
+                        try {
+                            return commitInTransaction(entry);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                    return Boolean.TRUE.equals(deduplicated);
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                } catch (DataIntegrityViolationException | BlobRemovedException e) {
+                    // Another upload of the same new content inserted the blob row first, or the
+                    // last reference to the content was released meanwhile; retry against it
+                    if (attempt >= MAX_COMMIT_ATTEMPTS) {
+                        throw new IOException("Could not record stored content for " + relativePath, e);
+                    }
+                    log.debug("Retrying content commit for {}: {}", relativePath, e.getMessage());
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            if (uploaded) {
+                discardUnreferenced(entry.getContentHash());
+            }
+            throw e;
+        }
+    }
+
+    private boolean commitInTransaction(MediaObject entry) throws IOException {
+        String hash = entry.getContentHash();
+        long size = entry.getSize();
+        String relativePath = entry.getPath();
+        MediaBlob blob = mediaBlobRepository.findByHashForUpdate(hash)
+                .orElseGet(() -> MediaBlob.builder().hash(hash).size(size).build());
+        boolean deduplicated = blob.getReferenceCount() > 0;
+
+        // Replacing a logical path releases the content it pointed to before
+        MediaObject mediaObject = mediaObjectRepository.findByPath(relativePath).orElse(null);
+        if (mediaObject != null && !hash.equals(mediaObject.getContentHash())) {
+            dereference(mediaObject);
+            mediaObject = null;
+        }
+        if (mediaObject == null) {
+            blob.setReferenceCount(blob.getReferenceCount() + 1);
+            // Flushed now, so the blob row is written and locked before the blob is checked below
+            mediaBlobRepository.saveAndFlush(blob);
+            // A fresh copy each attempt: a rolled back save must not leave an id behind
+            mediaObjectRepository.save(entry.toBuilder().build());
+        }
+
+        // Blobs are deleted under the row lock (see discardUnreferenced), so once the row is held a
+        // blob that is still present stays present until this transaction commits
+        String blobKey = blobKey(hash);
+        if (blobStore.stat(blobKey).isEmpty()) {
+            throw new BlobRemovedException(hash);
+        }
+
+        Optional<Path> blobFile = blobStore.localPath(blobKey);
+        deleteLocalFiles(relativePath);
+        if (blobFile.isPresent()) {
+            link(uploadPathResolver.shardedPath(relativePath), blobFile.get());
+        }
+        return deduplicated;
+    }
+
+    /**
+     * Gzip sidecar of a stored file, written next to its blob at upload time
+     * @return the sidecar path, or null if the file is not content-addressed; the sidecar itself
+     *         may not exist
+     */
+    public Path gzipSidecar(Path file) {
+        String hash = getContentHash(file);
+        if (hash == null) {
+            return null;
+        }
+        return blobStore.localPath(blobKey(hash) + GZIP_SUFFIX).orElse(null);
+    }
+
+    /**
+     * Compress a compressible blob once, at the strongest level, so that serving it gzip-encoded
+     * costs no CPU per request. Only done with the local store, and kept only if it saves at
+     * least a tenth; a failure leaves the file served uncompressed.
+     */
+    private void writeGzipSidecar(String hash, String relativePath, long size) {
+        if (!precompressedEnabled || size < precompressedMinSize || !mediaTypeRegistry.isCompressible(relativePath)) {
+            return;
+        }
+        Optional<Path> blobFile = blobStore.localPath(blobKey(hash));
+        Optional<Path> sidecar = blobStore.localPath(blobKey(hash) + GZIP_SUFFIX);
+        if (blobFile.isEmpty() || sidecar.isEmpty() || Files.exists(sidecar.get())) {
+            return;
+        }
+        Path temp = sidecar.get().resolveSibling(".gzip-" + UUID.randomUUID() + ".tmp");
+        try {
+            try (InputStream in = Files.newInputStream(blobFile.get());
+                 OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp), 64 * 1024) {
+                     {
+                         def.setLevel(Deflater.BEST_COMPRESSION);
+                     }
+                 }) {
+                in.transferTo(out);
+            }
+            long compressed = Files.size(temp);
+            if (compressed > size - size / 10) {
+                log.debug("Not keeping gzip copy of {}: {} of {} bytes", relativePath, compressed, size);
+                return;
+            }
+            Files.move(temp, sidecar.get(), StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Stored gzip copy of {} ({} of {} bytes)", relativePath, compressed, size);
+        } catch (IOException e) {
+            log.warn("Could not write gzip copy of {}: {}", relativePath, e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException e) {
+                log.debug("Could not delete {}: {}", temp, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Catalog entry for new content: type from the registry, and pixel dimensions of raster
+     * images read from the image header only
+     */
+    private MediaObject describe(Path temp, String relativePath, String hash, long size) {
+        MediaObject.MediaObjectBuilder entry = MediaObject.builder()
+                .path(relativePath)
+                .contentHash(hash)
+                .size(size);
+        int slash = relativePath.indexOf('/');
+        if (slash > 0) {
+            entry.category(relativePath.substring(0, slash));
+        }
+        MediaTypeRegistry.MediaTypeInfo type = mediaTypeRegistry.lookup(relativePath);
+        entry.contentType(type != null ? type.getMimeType() : MediaTypeRegistry.DEFAULT_CONTENT_TYPE);
+        if (type != null) {
+            entry.mediaType(type.getCategory().name());
+        }
+        if (type != null && type.getCategory() == MediaTypeRegistry.Category.IMAGE) {
+            try (ImageInputStream in = ImageIO.createImageInputStream(temp.toFile())) {
+                Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+                if (readers != null && readers.hasNext()) {
+                    ImageReader reader = readers.next();
+                    try {
+                        reader.setInput(in, true, true);
+                        int width = reader.getWidth(0);
+                        int height = reader.getHeight(0);
+                        entry.width(width).height(height);
+                        entry.placeholder(placeholder(reader, width, height, temp, relativePath));
+                    } finally {
+                        reader.dispose();
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                log.debug("Could not read dimensions of {}: {}", relativePath, e.getMessage());
+            }
+        }
+        return entry.build();
+    }
+
+    /**
+     * BlurHash of an image, from a heavily subsampled decode with its EXIF orientation applied
+     * @return the hash, or null if the image cannot be decoded
+     */
+    private String placeholder(ImageReader reader, int width, int height, Path temp, String relativePath) {
+        try {
+            ImageReadParam param = reader.getDefaultReadParam();
+            int factor = Math.max(1, Math.min(width, height) / PLACEHOLDER_SAMPLE_SIZE);
+            param.setSourceSubsampling(factor, factor, 0, 0);
+            BufferedImage sample = ImageVariantService.orient(reader.read(0, param),
+                    ImageVariantService.readExifOrientation(temp));
+            boolean landscape = sample.getWidth() >= sample.getHeight();
+            return BlurHash.encode(sample, landscape ? 4 : 3, landscape ? 3 : 4);
+        } catch (IOException | RuntimeException e) {
+            log.debug("Could not compute placeholder of {}: {}", relativePath, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Delete a blob and its gzip copy unless something references it: after the commit that
+     * dropped its last reference, or after a failed upload commit. Runs in its own transaction.
+     * The blob row is locked (inserted as a placeholder if there is none) while the blob is
+     * deleted, so a concurrent upload of the same content re-checks and re-uploads it after this
+     * commits.
+     */
+    private void discardUnreferenced(String hash) {
+        try {
+            cleanupTransactionTemplate.executeWithoutResult(status -> {
+                MediaBlob blob = mediaBlobRepository.findByHashForUpdate(hash).orElse(null);
+                if (blob != null && blob.getReferenceCount() > 0) {
+                    return;
+                }
+                if (blob == null) {
+                    blob = mediaBlobRepository.saveAndFlush(MediaBlob.builder().hash(hash).size(0L).build());
+                }
+                try {
+                    blobStore.delete(blobKey(hash));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                blobStore.localPath(blobKey(hash) + GZIP_SUFFIX).ifPresent(this::deleteSidecar);
+                mediaBlobRepository.delete(blob);
+                log.info("Deleted unreferenced blob {}", hash);
+            });
+        } catch (RuntimeException e) {
+            log.warn("Could not delete unreferenced blob {}: {}", hash, e.getMessage());
+        }
+    }
+
+    /**
+     * Delete the file of a logical path in both the sharded and the flat layout
+     * @return true if a file existed
+     */
+    private boolean deleteLocalFiles(String relativePath) throws IOException {
+        Path sharded = uploadPathResolver.shardedPath(relativePath);
+        hotMediaCache.invalidate(sharded);
+        boolean deleted = Files.deleteIfExists(sharded);
+        if (uploadPathResolver.hasLegacyFiles()) {
+            Path flat = uploadPathResolver.flatPath(relativePath);
+            hotMediaCache.invalidate(flat);
+            deleted |= Files.deleteIfExists(flat);
+        }
+        return deleted;
+    }
+
+    /**
+     * Drop a logical path's reference to its blob. Once nothing references the blob it is deleted
+     * after the current transaction commits, so a rollback keeps the rows and their blob together.
+     * @return bytes freed: the blob size if its last reference was dropped, otherwise 0
+     */
+    private long dereference(MediaObject mediaObject) {
+        mediaObjectRepository.delete(mediaObject);
+        MediaBlob blob = mediaBlobRepository.findByHashForUpdate(mediaObject.getContentHash()).orElse(null);
+        if (blob == null) {
+            return 0;
+        }
+        int remaining = blob.getReferenceCount() - 1;
+        if (remaining > 0) {
+            blob.setReferenceCount(remaining);
+            mediaBlobRepository.save(blob);
+            return 0;
+        }
+        mediaBlobRepository.delete(blob);
+        deleteAfterCommit(blob.getHash());
+        return blob.getSize();
+    }
+
+    private void deleteAfterCommit(String hash) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            discardUnreferenced(hash);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                // Re-checked under the row lock: the same content may have been stored again meanwhile
+                discardUnreferenced(hash);
+            }
+        });
+    }
+
+    private void deleteSidecar(Path sidecar) {
+        try {
+            Files.deleteIfExists(sidecar);
+        } catch (IOException e) {
+            log.warn("Could not delete gzip copy {}: {}", sidecar, e.getMessage());
+        }
+    }
+
+    /**
+     * Point the logical path at the blob: a relative symlink where supported,
+     * then a hard link, and a plain copy as the last resort.
+     */
+    private void link(Path logical, Path blobPath) throws IOException {
+        Files.createDirectories(logical.getParent());
+        Files.deleteIfExists(logical);
+        try {
+            Files.createSymbolicLink(logical, logical.getParent().relativize(blobPath));
+            return;
+        } catch (UnsupportedOperationException | IOException e) {
+            log.debug("Symbolic link not supported for {}: {}", logical, e.getMessage());
+        }
+        try {
+            Files.createLink(logical, blobPath);
+            return;
+        } catch (UnsupportedOperationException | IOException e) {
+            log.debug("Hard link not supported for {}: {}", logical, e.getMessage());
+        }
+        Files.copy(blobPath, logical);
+    }
+
+    /**
+     * Blob store key of the content with the given hash
+     */
+    public String blobKey(String hash) {
+        return BLOBS_DIR + "/" + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash;
+    }
+
+    private Path root() {
+        return Paths.get(uploadDir).toAbsolutePath().normalize();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * The blob disappeared between its upload and the commit that references it
+     */
+    private static class BlobRemovedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        BlobRemovedException(String hash) {
+            super("Blob " + hash + " was removed before its reference was recorded");
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class StoredContent {
+        private final String hash;
+        private final long size;
+        private final boolean deduplicated;
+    }
+}
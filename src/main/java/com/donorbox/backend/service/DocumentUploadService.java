@@ -1,26 +1,29 @@
 package com.donorbox.backend.service;
 
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Arrays;
-import java.util.List;
 import java.util.UUID;
 import com.donorbox.backend.util.DateTimeUtil;
 
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class DocumentUploadService {
 
+    private final ContentStorageService contentStorageService;
+    private final MediaTypeRegistry mediaTypeRegistry;
+
     @Value("${app.upload.dir:uploads}")
     private String uploadDir;
 
@@ -33,11 +36,8 @@ public class DocumentUploadService {
     @Value("${app.upload.document.max-size:10MB}")
     private String maxFileSizeStr;
 
-    @Value("${app.upload.document.allowed-types:jpg,jpeg,png,gif,webp,pdf,doc,docx}")
-    private String allowedTypesStr;
 
     private static final long MAX_FILE_SIZE = 10 * 1024 * 1024; // 10MB for documents - will be overridden by config
-    private static final List<String> ALLOWED_EXTENSIONS = Arrays.asList("jpg", "jpeg", "png", "gif", "webp", "pdf", "doc", "docx");
 
     /**
      * Upload a document file to local storage
@@ -55,14 +55,17 @@ public class DocumentUploadService {
         // Generate unique filename
         String filename = generateUniqueFilename(file.getOriginalFilename());
         
-        // Copy file to upload directory
+        // Store content (deduplicated) and link it into the upload directory
         Path filePath = uploadPath.resolve(filename);
-        Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+        String relativePath = category + "/" + filename;
+        try (InputStream in = file.getInputStream()) {
+            contentStorageService.store(in, relativePath);
+        }
         
         log.info("Document uploaded successfully: {}", filePath.toString());
         
         // Return relative path for accessing the document
-        return category + "/" + filename;
+        return relativePath;
     }
 
     /**
@@ -76,13 +79,12 @@ public class DocumentUploadService {
         }
         
         try {
-            Path fullPath = Paths.get(uploadDir).resolve(documentPath);
-            boolean deleted = Files.deleteIfExists(fullPath);
+            boolean deleted = contentStorageService.release(documentPath);
             
             if (deleted) {
-                log.info("Document deleted successfully: {}", fullPath.toString());
+                log.info("Document deleted successfully: {}", documentPath);
             } else {
-                log.warn("Document file not found for deletion: {}", fullPath.toString());
+                log.warn("Document file not found for deletion: {}", documentPath);
             }
             
             return deleted;
@@ -116,8 +118,7 @@ public class DocumentUploadService {
             return false;
         }
         
-        Path fullPath = Paths.get(uploadDir).resolve(relativePath);
-        return Files.exists(fullPath);
+        return contentStorageService.exists(relativePath);
     }
 
     /**
@@ -152,8 +153,8 @@ public class DocumentUploadService {
      * @return true if file is an image
      */
     public boolean isImage(String relativePath) {
-        String extension = getFileExtension(relativePath);
-        return Arrays.asList("jpg", "jpeg", "png", "gif", "webp").contains(extension);
+        MediaTypeRegistry.MediaTypeInfo type = mediaTypeRegistry.lookup(relativePath);
+        return type != null && type.getCategory() == MediaTypeRegistry.Category.IMAGE;
     }
 
     private void validateFile(MultipartFile file) throws IOException {
@@ -172,11 +173,12 @@ public class DocumentUploadService {
             throw new IOException("File name is null");
         }
 
-        List<String> allowedTypes = Arrays.asList(allowedTypesStr.split(","));
-        String extension = extractFileExtension(originalFilename).toLowerCase();
-        if (!allowedTypes.contains(extension)) {
-            throw new IOException("File type not allowed. Allowed types: " + String.join(", ", allowedTypes));
+        if (!mediaTypeRegistry.isAllowed(originalFilename, MediaTypeRegistry.Category.DOCUMENT)) {
+            throw new IOException("File type not allowed. Allowed types: " +
+                mediaTypeRegistry.getAllowedTypes(MediaTypeRegistry.Category.DOCUMENT));
         }
+
+        mediaTypeRegistry.verifyContent(file);
     }
 
     /**
@@ -6,16 +6,28 @@ import com.donorbox.backend.entity.Donation;
 import com.donorbox.backend.repository.CauseRepository;
 import com.donorbox.backend.repository.DonationRepository;
 import com.donorbox.backend.util.DateTimeUtil;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class DonationService {
     private final DonationRepository donationRepository;
     private final CauseRepository causeRepository;
@@ -172,28 +184,69 @@ public class DonationService {
             Donation.DonationStatus.PENDING, cutoffTime, maxFollowupCount);
     }
 
+    /**
+     * Claim the next batch of old pending donations for a follow-up email.
+     * Costs one select plus one bulk update per distinct follow-up count in the batch,
+     * independent of the batch size. Claimed donations already carry the incremented count.
+     */
     @Transactional
-    public void sendFollowUpEmail(Donation donation, String orgEmail) {
-        try {
-            emailService.sendDonationEmails(donation, orgEmail);
-            System.out.println("Follow-up email sent for donation " + donation.getId());
-        } catch (Exception e) {
-            System.err.println("Error sending follow-up email for donation " + donation.getId() + ": " + e.getMessage());
+    public FollowupBatch claimFollowupBatch(int hoursBack, int maxFollowupCount, Long afterId, int batchSize) {
+        java.time.LocalDateTime cutoffTime = DateTimeUtil.getCurrentKolkataTime().minusHours(hoursBack);
+        List<Donation> candidates = donationRepository.findFollowupBatch(
+            Donation.DonationStatus.PENDING, cutoffTime, maxFollowupCount, afterId, PageRequest.of(0, batchSize));
+        if (candidates.isEmpty()) {
+            return new FollowupBatch(List.of(), afterId, 0);
+        }
+
+        Map<Integer, List<Donation>> byCount = candidates.stream()
+                .collect(Collectors.groupingBy(d -> d.getFollowupEmailCount() != null ? d.getFollowupEmailCount() : 0));
+
+        java.time.LocalDateTime now = DateTimeUtil.getCurrentTimeForDatabase();
+        // Unique per claim, unlike a timestamp, which concurrent sweeps on other nodes can share
+        String token = UUID.randomUUID().toString();
+        List<Donation> claimed = new ArrayList<>(candidates.size());
+        for (Map.Entry<Integer, List<Donation>> group : byCount.entrySet()) {
+            int expectedCount = group.getKey();
+            List<Donation> donations = group.getValue();
+            List<Long> ids = donations.stream().map(Donation::getId).toList();
+
+            int updated = donationRepository.claimFollowupBatch(ids, Donation.DonationStatus.PENDING, expectedCount, token, now);
+            if (updated != ids.size()) {
+                // Another sweep touched part of this group; email exactly the rows this claim counted
+                Set<Long> claimedIds = new HashSet<>(donationRepository.findClaimedIds(ids, token));
+                log.warn("Follow-up claim for {} donations at count {} only updated {} rows, sending to {}",
+                        ids.size(), expectedCount, updated, claimedIds.size());
+                donations = donations.stream().filter(d -> claimedIds.contains(d.getId())).toList();
+            }
+
+            // Entities were detached by the bulk update, so this does not trigger another write
+            donations.forEach(d -> d.setFollowupEmailCount(expectedCount + 1));
+            claimed.addAll(donations);
         }
+
+        claimed.sort(Comparator.comparing(Donation::getId));
+        Long lastCandidateId = candidates.get(candidates.size() - 1).getId();
+        return new FollowupBatch(claimed, lastCandidateId, candidates.size());
     }
 
     @Transactional
-    public void sendFollowUpEmailWithCount(Donation donation, String orgEmail) {
+    public void sendFollowUpEmail(Donation donation, String orgEmail) {
         try {
-            // Increment follow-up email count
-            donation.setFollowupEmailCount(donation.getFollowupEmailCount() + 1);
-            donationRepository.save(donation);
-            
-            // Send the follow-up email
             emailService.sendDonationEmails(donation, orgEmail);
-            System.out.println("Follow-up email #" + donation.getFollowupEmailCount() + " sent for donation " + donation.getId());
+            System.out.println("Follow-up email sent for donation " + donation.getId());
         } catch (Exception e) {
             System.err.println("Error sending follow-up email for donation " + donation.getId() + ": " + e.getMessage());
         }
     }
+
+    /**
+     * Result of one follow-up claim: the donations to email and the keyset cursor for the next batch
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class FollowupBatch {
+        private final List<Donation> claimed;
+        private final Long lastCandidateId;
+        private final int candidateCount;
+    }
 }
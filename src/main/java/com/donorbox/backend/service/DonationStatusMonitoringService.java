@@ -15,12 +15,19 @@ import java.util.concurrent.CompletableFuture;
 @RequiredArgsConstructor
 @Slf4j
 public class DonationStatusMonitoringService {
+    private static final int FOLLOWUP_AFTER_HOURS = 2;
+    private static final int MAX_FOLLOWUP_EMAILS = 2;
+
     private final DonationService donationService;
     private final PaymentService paymentService;
+    private final EmailService emailService;
 
     @Value("${admin.email}")
     private String adminEmail;
 
+    @Value("${app.followup.batch-size:200}")
+    private int followupBatchSize;
+
     /**
      * Monitor and update donation statuses automatically
      * Runs every 5 minutes
@@ -173,37 +180,50 @@ public class DonationStatusMonitoringService {
     /**
      * Send follow-up emails for pending donations older than specified hours
      * LIMITED TO MAXIMUM 2 FOLLOW-UP EMAILS PER DONATION
+     * Donations are claimed in batches with a bulk counter update and the emails are
+     * handed to the async email executor, so DB round trips scale with batches, not donations.
      */
     @Scheduled(fixedRate = 1800000) // 30 minutes = 1,800,000 milliseconds
-    @Transactional
     public void sendFollowUpEmails() {
         try {
-            log.info("Sending follow-up emails for old pending donations (max 2 per donation)...");
+            log.info("Sending follow-up emails for old pending donations (max {} per donation)...", MAX_FOLLOWUP_EMAILS);
             
-            // Get pending donations older than 2 hours that haven't exceeded follow-up limit
-            List<Donation> oldPendingDonations = donationService.getOldPendingDonationsForFollowup(2, 2); // 2+ hours old, less than 2 follow-ups
-            
-            int emailsSent = 0;
-            for (Donation donation : oldPendingDonations) {
-                try {
-                    // Send follow-up email and increment count
-                    donationService.sendFollowUpEmailWithCount(donation, adminEmail);
-                    emailsSent++;
-                    
-                    log.info("Sent follow-up email #{} for pending donation {} (created: {})", 
-                            donation.getFollowupEmailCount(), donation.getId(), donation.getCreatedAt());
-                    
-                    // Check if this donation has now reached the limit
-                    if (donation.getFollowupEmailCount() >= 2) {
-                        log.info("Donation {} has reached maximum follow-up emails (2). No more follow-ups will be sent.", 
-                                donation.getId());
+            int emailsQueued = 0;
+            int batches = 0;
+            Long afterId = 0L;
+            while (true) {
+                // 2+ hours old, less than 2 follow-ups; each batch commits on its own
+                DonationService.FollowupBatch batch = donationService.claimFollowupBatch(
+                        FOLLOWUP_AFTER_HOURS, MAX_FOLLOWUP_EMAILS, afterId, followupBatchSize);
+                if (batch.getCandidateCount() == 0) {
+                    break;
+                }
+                batches++;
+                afterId = batch.getLastCandidateId();
+                
+                for (Donation donation : batch.getClaimed()) {
+                    try {
+                        emailService.sendDonationEmailsAsync(donation, adminEmail);
+                        emailsQueued++;
+                        
+                        log.debug("Queued follow-up email #{} for pending donation {} (created: {})", 
+                                donation.getFollowupEmailCount(), donation.getId(), donation.getCreatedAt());
+                        
+                        if (donation.getFollowupEmailCount() >= MAX_FOLLOWUP_EMAILS) {
+                            log.info("Donation {} has reached maximum follow-up emails ({}). No more follow-ups will be sent.", 
+                                    donation.getId(), MAX_FOLLOWUP_EMAILS);
+                        }
+                    } catch (Exception e) {
+                        log.error("Error queueing follow-up email for donation {}", donation.getId(), e);
                     }
-                } catch (Exception e) {
-                    log.error("Error sending follow-up email for donation {}", donation.getId(), e);
+                }
+                
+                if (batch.getCandidateCount() < followupBatchSize) {
+                    break;
                 }
             }
             
-            log.info("Follow-up email process completed. {} emails sent.", emailsSent);
+            log.info("Follow-up email process completed. {} emails queued in {} batches.", emailsQueued, batches);
             
         } catch (Exception e) {
             log.error("Error during follow-up email sending", e);
@@ -25,23 +25,23 @@ public class EmailSchedulerService {
             switch (status) {
                 case COMPLETED:
                     // Send immediately for completed payments
-                    emailService.sendDonationEmails(donation, orgEmail);
+                    emailService.sendDonationEmailsAsync(donation, orgEmail);
                     break;
                     
                 case FAILED:
                     // Send immediately for failed payments
-                    emailService.sendDonationEmails(donation, orgEmail);
+                    emailService.sendDonationEmailsAsync(donation, orgEmail);
                     break;
                     
                 case REFUNDED:
                     // Send immediately for refunded payments
-                    emailService.sendDonationEmails(donation, orgEmail);
+                    emailService.sendDonationEmailsAsync(donation, orgEmail);
                     break;
                     
                 case PENDING:
                     // Send immediately for pending status as well
                     // Users should know their donation is being processed
-                    emailService.sendDonationEmails(donation, orgEmail);
+                    emailService.sendDonationEmailsAsync(donation, orgEmail);
                     
                     // Also schedule a follow-up email after 10 minutes to check final status
                     Instant followUpTime = Instant.now().plusMillis(TimeUnit.MINUTES.toMillis(10));
@@ -57,7 +57,7 @@ public class EmailSchedulerService {
                     
                 default:
                     // Send immediately for any unknown status
-                    emailService.sendDonationEmails(donation, orgEmail);
+                    emailService.sendDonationEmailsAsync(donation, orgEmail);
                     break;
             }
         });
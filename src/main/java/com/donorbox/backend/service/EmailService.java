@@ -6,6 +6,7 @@ import jakarta.mail.internet.MimeMessage;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.SimpleMailMessage;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
@@ -195,6 +196,14 @@ public class EmailService {
         }
     }
 
+    /**
+     * Send donation emails on the bounded email executor instead of the caller's thread
+     */
+    @Async("emailTaskExecutor")
+    public void sendDonationEmailsAsync(Donation donation, String orgEmail) {
+        sendDonationEmails(donation, orgEmail);
+    }
+
     public void sendSubmissionStatusEmail(String email, String subject, String htmlContent) {
         try {
             sendHtmlEmail(email, subject, htmlContent);
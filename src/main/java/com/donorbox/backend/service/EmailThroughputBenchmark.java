@@ -0,0 +1,149 @@
+package com.donorbox.backend.service;
+
+import com.donorbox.backend.config.SmtpSinkServer;
+import com.donorbox.backend.config.TimedJavaMailSender;
+import com.donorbox.backend.entity.Donation;
+import com.donorbox.backend.repository.DonationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * End-to-end email pipeline benchmark. Creates pending donations, completes them through
+ * DonationService (the same path the webhook and monitor use) and measures how fast the
+ * resulting emails reach the embedded SMTP sink.
+ *
+ * Run with:
+ *   mvn spring-boot:run -Dspring-boot.run.profiles=mail-sink \
+ *       -Dspring-boot.run.arguments=--app.benchmark.email.enabled=true
+ */
+@Component
+@Profile("mail-sink")
+@ConditionalOnProperty(name = "app.benchmark.email.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class EmailThroughputBenchmark implements ApplicationRunner {
+
+    // Every status change emails both the donor and the organisation
+    private static final int EMAILS_PER_UPDATE = 2;
+
+    private final DonationService donationService;
+    private final DonationRepository donationRepository;
+    private final SmtpSinkServer smtpSinkServer;
+    private final TimedJavaMailSender mailSender;
+    private final ThreadPoolTaskExecutor emailTaskExecutor;
+    private final ApplicationContext applicationContext;
+
+    @Value("${app.benchmark.email.donations:500}")
+    private int donationCount;
+
+    @Value("${app.benchmark.email.concurrency:8}")
+    private int concurrency;
+
+    @Value("${app.benchmark.email.timeout-seconds:300}")
+    private long timeoutSeconds;
+
+    @Value("${app.benchmark.email.exit-on-finish:true}")
+    private boolean exitOnFinish;
+
+    @Value("${admin.email}")
+    private String adminEmail;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        log.info("Email benchmark: {} donations, {} driver threads", donationCount, concurrency);
+
+        List<Long> donationIds = createPendingDonations();
+        smtpSinkServer.resetCounters();
+        mailSender.resetStats();
+
+        AtomicInteger maxQueueDepth = new AtomicInteger();
+        AtomicLong queueDepthSum = new AtomicLong();
+        AtomicLong queueDepthSamples = new AtomicLong();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> {
+            int depth = emailTaskExecutor.getThreadPoolExecutor().getQueue().size();
+            maxQueueDepth.accumulateAndGet(depth, Math::max);
+            queueDepthSum.addAndGet(depth);
+            queueDepthSamples.incrementAndGet();
+        }, 0, 10, TimeUnit.MILLISECONDS);
+
+        long expectedEmails = (long) donationIds.size() * EMAILS_PER_UPDATE;
+        long start = System.nanoTime();
+
+        ExecutorService drivers = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<?>> futures = new ArrayList<>(donationIds.size());
+            for (Long id : donationIds) {
+                futures.add(drivers.submit(() -> donationService.updateDonationStatusWithNotification(
+                        id, Donation.DonationStatus.COMPLETED, "bench_pay_" + id, "bench_order_" + id, adminEmail)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            drivers.shutdown();
+        }
+        double submitSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        while (smtpSinkServer.getMessagesAccepted() < expectedEmails && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        double totalSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        sampler.shutdownNow();
+
+        long delivered = smtpSinkServer.getMessagesAccepted();
+        log.info("===== Email pipeline benchmark =====");
+        log.info("Status updates:        {} ({} driver threads, submitted in {} s)",
+                donationIds.size(), concurrency, String.format("%.2f", submitSeconds));
+        log.info("Emails delivered:      {} / {} expected ({} send failures)",
+                delivered, expectedEmails, mailSender.getFailureCount());
+        log.info("Throughput:            {} emails/s", String.format("%.1f", delivered / totalSeconds));
+        log.info("Send latency p50/p99:  {} ms / {} ms",
+                String.format("%.2f", mailSender.getLatencyPercentileMs(50)),
+                String.format("%.2f", mailSender.getLatencyPercentileMs(99)));
+        log.info("Email queue depth:     max {}, mean {}", maxQueueDepth.get(),
+                String.format("%.1f", queueDepthSamples.get() == 0 ? 0.0 : (double) queueDepthSum.get() / queueDepthSamples.get()));
+        log.info("SMTP connections:      {}, bytes accepted: {}",
+                smtpSinkServer.getConnectionsAccepted(), smtpSinkServer.getBytesAccepted());
+
+        if (exitOnFinish) {
+            System.exit(SpringApplication.exit(applicationContext, () -> delivered >= expectedEmails ? 0 : 1));
+        }
+    }
+
+    private List<Long> createPendingDonations() {
+        List<Donation> donations = new ArrayList<>(donationCount);
+        for (int i = 0; i < donationCount; i++) {
+            donations.add(Donation.builder()
+                    .donorName("Benchmark Donor " + i)
+                    .donorEmail("donor" + i + "@sink.local")
+                    .amount(BigDecimal.valueOf(100 + i))
+                    .currency("INR")
+                    .paymentMethod("benchmark")
+                    .status(Donation.DonationStatus.PENDING)
+                    .build());
+        }
+        return donationRepository.saveAll(donations).stream().map(Donation::getId).toList();
+    }
+}
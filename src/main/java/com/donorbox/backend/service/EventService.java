@@ -12,7 +12,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class EventService {
     private final EventRepository eventRepository;
-    private final ImageUploadService imageUploadService;
+    private final MediaCatalogService mediaCatalogService;
+    private final MediaDeletionService mediaDeletionService;
 
     @Transactional(readOnly = true)
 public List<Event> getAllEvents() {
@@ -29,7 +30,9 @@ public List<Event> getAllEvents() {
 
     @Transactional
     public Event createEvent(Event event) {
-        return eventRepository.save(event);
+        Event savedEvent = eventRepository.save(event);
+        mediaCatalogService.assignOwner("event", savedEvent.getId(), savedEvent.getImageUrl());
+        return savedEvent;
     }
 
     @Transactional
@@ -43,7 +46,9 @@ public List<Event> getAllEvents() {
         existingEvent.setImageUrl(event.getImageUrl());
         existingEvent.setMaxParticipants(event.getMaxParticipants());
         existingEvent.setStatus(event.getStatus());
-        return eventRepository.save(existingEvent);
+        Event updatedEvent = eventRepository.save(existingEvent);
+        mediaCatalogService.assignOwner("event", updatedEvent.getId(), updatedEvent.getImageUrl());
+        return updatedEvent;
     }
 
     @Transactional
@@ -51,10 +56,8 @@ public List<Event> getAllEvents() {
         // Get the event to check if it has an image
         Event event = getEventById(id);
         
-        // Delete associated image if exists
-        if (event.getImageUrl() != null && !event.getImageUrl().trim().isEmpty()) {
-            imageUploadService.deleteImage(event.getImageUrl());
-        }
+        // Delete associated image once the event is gone
+        mediaDeletionService.deleteAfterCommit(event.getImageUrl());
         
         // Delete the event from database
         eventRepository.deleteById(id);
@@ -0,0 +1,627 @@
+package com.donorbox.backend.service;
+
+import com.donorbox.backend.entity.MediaObject;
+import com.donorbox.backend.util.DateTimeUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves uploaded files for the media, image and document endpoints.
+ * Every response carries a strong ETag and Last-Modified; conditional requests are answered
+ * with 304/412 from an in-memory validator cache.
+ * Handles single and multi-range requests (206 Partial Content) with If-Range validation;
+ * range bodies are streamed as ResourceRegions. Full and single-range GETs of larger files are
+ * handed to the container's sendfile support (FileChannel.transferTo) when available, so the
+ * bytes never pass through the JVM heap.
+ * Files that are not on local disk are served from the {@link BlobStore}: large ones by
+ * redirecting to a presigned URL, the rest streamed through with single-range support.
+ * Small images are kept in the off-heap {@link HotMediaCache}; full GETs of a cached file are
+ * answered from memory without touching the disk or the blob store.
+ * Compressible types (SVG, uncompressed images and documents) are served from the gzip copy
+ * written at upload time to clients that accept it, with Vary: Accept-Encoding on every response.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FileServingService {
+
+    // Tomcat request attributes for zero-copy file transfer
+    private static final String SENDFILE_SUPPORTED_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    private final ContentStorageService contentStorageService;
+    private final BlobStore blobStore;
+    private final HotMediaCache hotMediaCache;
+    private final MediaIndex mediaIndex;
+    private final UploadPathResolver uploadPathResolver;
+    private final MediaTypeRegistry mediaTypeRegistry;
+
+    @Value("${app.serving.sendfile.enabled:true}")
+    private boolean sendfileEnabled;
+
+    @Value("${app.serving.sendfile.min-size:49152}")
+    private long sendfileMinSize;
+
+    @Value("${app.serving.etag.content-hash:false}")
+    private boolean contentHashEtags;
+
+    @Value("${app.serving.etag.cache-size:10000}")
+    private int validatorCacheSize;
+
+    @Value("${app.serving.not-found-log-interval-ms:10000}")
+    private long notFoundLogIntervalMs;
+
+    @Value("${app.serving.precompressed.enabled:true}")
+    private boolean precompressedEnabled;
+
+    @Value("${app.storage.presigned-redirect.enabled:true}")
+    private boolean presignedRedirectEnabled;
+
+    @Value("${app.storage.presigned-redirect.min-size:1048576}")
+    private long presignedRedirectMinSize;
+
+    @Value("${app.storage.presigned-redirect.ttl-seconds:900}")
+    private long presignedRedirectTtlSeconds;
+
+    // Validators per file path, revalidated against size and mtime on every request
+    private final Map<Path, FileValidator> validatorCache = new ConcurrentHashMap<>();
+
+    // Missing files are logged at most once per interval, with a count of the ones not logged
+    private final AtomicLong lastNotFoundLog = new AtomicLong();
+    private final AtomicLong suppressedNotFound = new AtomicLong();
+
+    /**
+     * Resolve category/filename to its file under the upload directory (sharded or flat layout)
+     * @return the file path, or null if the path escapes the upload directory or is known not to exist
+     */
+    public Path resolveUploadPath(String category, String filename) {
+        Path root = uploadPathResolver.root();
+        Path path = root.resolve(category).resolve(filename).normalize();
+        if (!path.startsWith(root) || path.getNameCount() - root.getNameCount() != 2) {
+            return null;
+        }
+        // Scanners and stale links are turned away by the index without a filesystem lookup
+        String relativePath = root.relativize(path).toString().replace('\\', '/');
+        if (mediaIndex.isKnownMissing(relativePath)) {
+            logNotFound(path);
+            return null;
+        }
+        return uploadPathResolver.resolve(relativePath);
+    }
+
+    /**
+     * Build the response for serving a stored file, honouring conditional, Range and If-Range headers
+     * @param file The file to serve
+     * @param contentType Content type of the file
+     * @param disposition "inline" or "attachment"
+     * @param cacheControl Cache-Control header value, or null for none
+     * @param request The current request
+     * @return 200/206 with the file content, 304/412 for conditional requests,
+     *         404 if missing, 416 for unsatisfiable ranges
+     */
+    public ResponseEntity<Resource> serveFile(Path file, String contentType, String disposition,
+                                              String cacheControl, HttpServletRequest request) {
+        return serveFile(file, file != null ? file.getFileName().toString() : null, contentType, disposition,
+                cacheControl, request);
+    }
+
+    /**
+     * Serve a stored file under the name the client asked for, e.g. an image variant or
+     * optimized copy under the original's filename
+     * @param file The file to serve
+     * @param downloadName Filename for the Content-Disposition header
+     * @param contentType Content type of the file
+     * @param disposition "inline" or "attachment"
+     * @param cacheControl Cache-Control header value, or null for none
+     * @param request The current request
+     */
+    public ResponseEntity<Resource> serveFile(Path file, String downloadName, String contentType, String disposition,
+                                              String cacheControl, HttpServletRequest request) {
+        if (file == null) {
+            return ResponseEntity.notFound().build();
+        }
+        String filename = file.getFileName().toString();
+        // Built once here; the helpers below take the finished header value
+        disposition = ContentDisposition.builder(disposition).filename(downloadName).build().toString();
+        // Ranges always refer to the identity content, so they never get the gzip copy
+        if (precompressedEnabled && mediaTypeRegistry.isCompressible(filename)
+                && request.getHeader(HttpHeaders.RANGE) == null && acceptsGzip(request)) {
+            Path sidecar = contentStorageService.gzipSidecar(file);
+            FileValidator encoded = sidecar != null ? getValidator(sidecar) : null;
+            if (encoded != null) {
+                return serveEncoded(encoded, filename, contentType, disposition, cacheControl, request);
+            }
+        }
+        boolean cacheable = hotMediaCache.isCacheable(contentType) && request.getHeader(HttpHeaders.RANGE) == null;
+        if (cacheable) {
+            HotMediaCache.CachedMedia cached = hotMediaCache.get(file);
+            if (cached != null) {
+                return serveCached(cached, filename, contentType, disposition, cacheControl, request);
+            }
+        }
+        // One stat answers existence, size and mtime; the rest of the file's metadata is cached
+        FileValidator validator = getValidator(file);
+        if (validator == null) {
+            // Not on this node's disk: it may live in a shared blob store
+            Optional<MediaObject> stored = contentStorageService.findObject(uploadPathResolver.toLogicalPath(file));
+            if (stored.isPresent()) {
+                return serveBlob(stored.get(), file, contentType, disposition, cacheControl, request);
+            }
+            logNotFound(file);
+            return ResponseEntity.notFound().build();
+        }
+        long length = validator.getSize();
+        long lastModified = validator.getLastModified();
+        String etag = validator.getEtag();
+
+        HttpHeaders headers = responseHeaders(filename, disposition, etag, lastModified, cacheControl);
+
+        // Conditional requests are answered from the cached validator without opening the file
+        HttpStatus conditionalStatus = evaluatePreconditions(request, etag, lastModified);
+        if (conditionalStatus != null) {
+            return conditionalResponse(conditionalStatus, filename, etag, lastModified, cacheControl);
+        }
+
+        if (cacheable && "GET".equals(request.getMethod()) && hotMediaCache.isCacheable(length, contentType)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                HotMediaCache.CachedMedia cached = hotMediaCache.load(file, in, length, etag, lastModified);
+                if (cached != null) {
+                    return serveCached(cached, filename, contentType, disposition, cacheControl, request);
+                }
+            } catch (IOException e) {
+                log.debug("Could not cache {}, serving from disk: {}", file, e.getMessage());
+            }
+        }
+
+        headers.setContentType(MediaType.parseMediaType(contentType));
+        Resource resource = new FileSystemResource(file);
+
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        boolean staleRange = rangeHeader != null && !ifRangeMatches(request, etag, lastModified);
+        if (rangeHeader == null || staleRange) {
+            headers.setContentLength(length);
+            if (trySendfile(request, validator, 0, length)) {
+                return new ResponseEntity<>(headers, HttpStatus.OK);
+            }
+            if (!staleRange) {
+                return new ResponseEntity<>(resource, headers, HttpStatus.OK);
+            }
+            // The client's partial copy is outdated, so send the whole file.
+            // InputStreamResource opts out of Spring MVC's automatic Range processing.
+            try {
+                return new ResponseEntity<>(new InputStreamResource(resource.getInputStream()), headers, HttpStatus.OK);
+            } catch (IOException e) {
+                log.error("Error opening file: {}", file, e);
+                return ResponseEntity.notFound().build();
+            }
+        }
+
+        List<HttpRange> ranges;
+        try {
+            ranges = HttpRange.parseRanges(rangeHeader);
+            for (HttpRange range : ranges) {
+                if (range.getRangeStart(length) >= length) {
+                    return rangeNotSatisfiable(length);
+                }
+            }
+            HttpRange.toResourceRegions(ranges, resource);
+        } catch (IllegalArgumentException e) {
+            log.debug("Unsatisfiable range '{}' for file {}: {}", rangeHeader, file, e.getMessage());
+            return rangeNotSatisfiable(length);
+        }
+
+        if (ranges.size() == 1) {
+            long start = ranges.get(0).getRangeStart(length);
+            long end = ranges.get(0).getRangeEnd(length);
+            if (trySendfile(request, validator, start, end + 1)) {
+                headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+                headers.setContentLength(end - start + 1);
+                return new ResponseEntity<>(headers, HttpStatus.PARTIAL_CONTENT);
+            }
+        }
+
+        // Validated ranges on a 200 Resource body are written by Spring MVC as 206 ResourceRegions
+        // (a single region, or multipart/byteranges for several)
+        return new ResponseEntity<>(resource, headers, HttpStatus.OK);
+    }
+
+    /**
+     * Serve content held in the blob store. Validators come from the catalog row, so conditional
+     * requests and redirects need no call to the store.
+     */
+    private ResponseEntity<Resource> serveBlob(MediaObject stored, Path file, String contentType, String disposition,
+                                               String cacheControl, HttpServletRequest request) {
+        String filename = file.getFileName().toString();
+        String key = contentStorageService.blobKey(stored.getContentHash());
+        long length = stored.getSize();
+        long lastModified = DateTimeUtil.toEpochMillis(stored.getCreatedAt());
+        String etag = "\"" + stored.getContentHash() + "\"";
+
+        HttpHeaders headers = responseHeaders(filename, disposition, etag, lastModified, cacheControl);
+        HttpStatus conditionalStatus = evaluatePreconditions(request, etag, lastModified);
+        if (conditionalStatus != null) {
+            return conditionalResponse(conditionalStatus, filename, etag, lastModified, cacheControl);
+        }
+
+        // Large downloads go straight from the store to the client, which also handles Range there
+        if (presignedRedirectEnabled && length >= presignedRedirectMinSize && "GET".equals(request.getMethod())) {
+            Optional<URI> url = blobStore.presignedGetUrl(key, Duration.ofSeconds(presignedRedirectTtlSeconds),
+                    contentType, headers.getFirst(HttpHeaders.CONTENT_DISPOSITION));
+            if (url.isPresent()) {
+                return ResponseEntity.status(HttpStatus.FOUND)
+                        .location(url.get())
+                        .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                        .build();
+            }
+        }
+
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null && "GET".equals(request.getMethod()) && hotMediaCache.isCacheable(length, contentType)) {
+            try (InputStream in = blobStore.get(key)) {
+                HotMediaCache.CachedMedia cached = hotMediaCache.load(file, in, length, etag, lastModified);
+                if (cached != null) {
+                    return serveCached(cached, filename, contentType, disposition, cacheControl, request);
+                }
+            } catch (IOException e) {
+                log.debug("Could not cache blob {} for {}: {}", key, filename, e.getMessage());
+            }
+        }
+
+        headers.setContentType(MediaType.parseMediaType(contentType));
+        long start = 0;
+        long end = length - 1;
+        HttpStatus status = HttpStatus.OK;
+
+        if (rangeHeader != null && ifRangeMatches(request, etag, lastModified)) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+                // Several ranges are answered with the whole content, which RFC 9110 permits
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                    if (start >= length) {
+                        return rangeNotSatisfiable(length);
+                    }
+                    headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+                    status = HttpStatus.PARTIAL_CONTENT;
+                }
+            } catch (IllegalArgumentException e) {
+                return rangeNotSatisfiable(length);
+            }
+        }
+        headers.setContentLength(end - start + 1);
+
+        if ("HEAD".equals(request.getMethod())) {
+            return new ResponseEntity<>(headers, status);
+        }
+        try {
+            InputStream in = status == HttpStatus.PARTIAL_CONTENT ? blobStore.get(key, start, end) : blobStore.get(key);
+            // InputStreamResource opts out of Spring MVC's own Range processing, which was done above
+            return new ResponseEntity<>(new InputStreamResource(in), headers, status);
+        } catch (IOException e) {
+            log.error("Error reading blob {} for {}: {}", key, filename, e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Serve a full response from the hot media cache
+     */
+    private ResponseEntity<Resource> serveCached(HotMediaCache.CachedMedia cached, String filename, String contentType,
+                                                 String disposition, String cacheControl, HttpServletRequest request) {
+        String etag = cached.getEtag();
+        long lastModified = cached.getLastModified();
+        HttpStatus conditionalStatus = evaluatePreconditions(request, etag, lastModified);
+        if (conditionalStatus != null) {
+            return conditionalResponse(conditionalStatus, filename, etag, lastModified, cacheControl);
+        }
+
+        HttpHeaders headers = responseHeaders(filename, disposition, etag, lastModified, cacheControl);
+        headers.setContentType(MediaType.parseMediaType(contentType));
+        headers.setContentLength(cached.getSize());
+        if ("HEAD".equals(request.getMethod())) {
+            return new ResponseEntity<>(headers, HttpStatus.OK);
+        }
+        return new ResponseEntity<>(new InputStreamResource(cached.openStream()), headers, HttpStatus.OK);
+    }
+
+    /**
+     * Serve the gzip copy of a file. It has its own validator, so caches and conditional requests
+     * never mix up the encoded and identity representations.
+     */
+    private ResponseEntity<Resource> serveEncoded(FileValidator encoded, String filename, String contentType,
+                                                  String disposition, String cacheControl, HttpServletRequest request) {
+        String etag = encoded.getEtag();
+        long lastModified = encoded.getLastModified();
+        HttpStatus conditionalStatus = evaluatePreconditions(request, etag, lastModified);
+        if (conditionalStatus != null) {
+            return conditionalResponse(conditionalStatus, filename, etag, lastModified, cacheControl);
+        }
+
+        HttpHeaders headers = responseHeaders(filename, disposition, etag, lastModified, cacheControl);
+        headers.setContentType(MediaType.parseMediaType(contentType));
+        headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        headers.setContentLength(encoded.getSize());
+        if (trySendfile(request, encoded, 0, encoded.getSize())) {
+            return new ResponseEntity<>(headers, HttpStatus.OK);
+        }
+        return new ResponseEntity<>(new FileSystemResource(encoded.getRealPath()), headers, HttpStatus.OK);
+    }
+
+    /**
+     * Whether the request's Accept-Encoding allows gzip (an explicit gzip or *, with a non-zero q)
+     */
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parameters = coding.split(";");
+            String name = parameters[0].trim().toLowerCase(Locale.ROOT);
+            if (!name.equals("gzip") && !name.equals("x-gzip") && !name.equals("*")) {
+                continue;
+            }
+            double quality = 1;
+            for (int i = 1; i < parameters.length; i++) {
+                String parameter = parameters[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (quality > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // filename is the file served, disposition the finished Content-Disposition value
+    private HttpHeaders responseHeaders(String filename, String disposition, String etag,
+                                        long lastModified, String cacheControl) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_DISPOSITION, disposition);
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        headers.setETag(etag);
+        headers.setLastModified(lastModified);
+        if (cacheControl != null) {
+            headers.set(HttpHeaders.CACHE_CONTROL, cacheControl);
+        }
+        addVary(headers, filename);
+        return headers;
+    }
+
+    private ResponseEntity<Resource> conditionalResponse(HttpStatus status, String filename, String etag,
+                                                         long lastModified, String cacheControl) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag);
+        headers.setLastModified(lastModified);
+        if (cacheControl != null) {
+            headers.set(HttpHeaders.CACHE_CONTROL, cacheControl);
+        }
+        addVary(headers, filename);
+        return new ResponseEntity<>(headers, status);
+    }
+
+    /**
+     * Responses for negotiated types depend on Accept-Encoding, whichever representation they carry
+     */
+    private void addVary(HttpHeaders headers, String filename) {
+        if (precompressedEnabled && mediaTypeRegistry.isCompressible(filename)) {
+            headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+        }
+    }
+
+    private void logNotFound(Path file) {
+        long now = System.currentTimeMillis();
+        long last = lastNotFoundLog.get();
+        if (now - last >= notFoundLogIntervalMs && lastNotFoundLog.compareAndSet(last, now)) {
+            long suppressed = suppressedNotFound.getAndSet(0);
+            if (suppressed > 0) {
+                log.warn("File not found or not readable: {} ({} more since the last report)", file, suppressed);
+            } else {
+                log.warn("File not found or not readable: {}", file);
+            }
+        } else {
+            suppressedNotFound.incrementAndGet();
+            log.debug("File not found or not readable: {}", file);
+        }
+    }
+
+    /**
+     * Get the validator for a file, reusing the cached one while size and mtime are unchanged
+     * @return the validator, or null if the file is missing, not a regular file or unreadable
+     */
+    private FileValidator getValidator(Path file) {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;
+        }
+        if (!attributes.isRegularFile()) {
+            return null;
+        }
+        long size = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+
+        FileValidator cached = validatorCache.get(file);
+        if (cached != null && cached.getSize() == size && cached.getLastModified() == lastModified) {
+            return cached;
+        }
+
+        // Content-addressed files carry their hash in the blob link, so the ETag costs nothing
+        String tag = contentStorageService.getContentHash(file);
+        String realPath;
+        try {
+            if (tag == null && contentHashEtags) {
+                try (InputStream in = Files.newInputStream(file)) {
+                    tag = DigestUtils.md5DigestAsHex(in);
+                }
+            } else if (tag == null) {
+                tag = Long.toHexString(size) + "-" + Long.toHexString(lastModified);
+            }
+            // Resolved once here rather than for every sendfile transfer (links lead into blobs/)
+            realPath = file.toRealPath().toString();
+        } catch (IOException e) {
+            log.warn("File {} is not readable: {}", file, e.getMessage());
+            return null;
+        }
+        FileValidator validator = new FileValidator(size, lastModified, "\"" + tag + "\"", realPath);
+
+        if (validatorCache.size() >= validatorCacheSize) {
+            // Validators are cheap to rebuild, so evicting an arbitrary entry is good enough
+            validatorCache.keySet().stream().findAny().ifPresent(validatorCache::remove);
+        }
+        validatorCache.put(file, validator);
+        return validator;
+    }
+
+    /**
+     * Evaluate If-Match, If-Unmodified-Since, If-None-Match and If-Modified-Since (RFC 9110 order)
+     * @return 412 or 304 if the request is answered without a body, null to serve normally
+     */
+    private HttpStatus evaluatePreconditions(HttpServletRequest request, String etag, long lastModified) {
+        String ifMatch = request.getHeader(HttpHeaders.IF_MATCH);
+        if (ifMatch != null) {
+            if (!etagMatches(ifMatch, etag, false)) {
+                return HttpStatus.PRECONDITION_FAILED;
+            }
+        } else {
+            long ifUnmodifiedSince = getDateHeader(request, HttpHeaders.IF_UNMODIFIED_SINCE);
+            if (ifUnmodifiedSince != -1 && lastModified / 1000 > ifUnmodifiedSince / 1000) {
+                return HttpStatus.PRECONDITION_FAILED;
+            }
+        }
+
+        boolean safeMethod = "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            if (etagMatches(ifNoneMatch, etag, true)) {
+                return safeMethod ? HttpStatus.NOT_MODIFIED : HttpStatus.PRECONDITION_FAILED;
+            }
+            return null;
+        }
+
+        long ifModifiedSince = getDateHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+        if (safeMethod && ifModifiedSince != -1 && lastModified / 1000 <= ifModifiedSince / 1000) {
+            return HttpStatus.NOT_MODIFIED;
+        }
+        return null;
+    }
+
+    /**
+     * Match an entity tag against a comma separated If-Match / If-None-Match list
+     * @param weak true for weak comparison (W/ prefixes ignored), false for strong comparison
+     */
+    private boolean etagMatches(String headerValue, String etag, boolean weak) {
+        for (String candidate : headerValue.split(",")) {
+            String tag = candidate.trim();
+            if ("*".equals(tag)) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                if (!weak) {
+                    continue;
+                }
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * If-Range is satisfied by an exact strong ETag match, or by an HTTP-date equal to
+     * the file's Last-Modified (second precision).
+     */
+    private boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        long ifRangeDate = getDateHeader(request, HttpHeaders.IF_RANGE);
+        return ifRangeDate != -1 && ifRangeDate / 1000 == lastModified / 1000;
+    }
+
+    private long getDateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Ask the container to transfer the byte range [start, end) itself via sendfile
+     * @return true if the container will write the body
+     */
+    private boolean trySendfile(HttpServletRequest request, FileValidator file, long start, long end) {
+        if (!sendfileEnabled
+                || end - start < sendfileMinSize
+                || !"GET".equals(request.getMethod())
+                || !Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED_ATTR))) {
+            return false;
+        }
+        request.setAttribute(SENDFILE_FILENAME_ATTR, file.getRealPath());
+        request.setAttribute(SENDFILE_START_ATTR, start);
+        request.setAttribute(SENDFILE_END_ATTR, end);
+        return true;
+    }
+
+    private ResponseEntity<Resource> rangeNotSatisfiable(long length) {
+        return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                .header(HttpHeaders.CONTENT_RANGE, "bytes */" + length)
+                .build();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class FileValidator {
+        private final long size;
+        private final long lastModified;
+        private final String etag;
+        // Target of the file with links resolved, handed to the container for sendfile
+        private final String realPath;
+    }
+}
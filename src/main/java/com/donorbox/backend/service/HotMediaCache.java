@@ -0,0 +1,211 @@
+package com.donorbox.backend.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Size-bounded LRU cache of small, hot media files (card and featured images) keyed by file path.
+ * Content is held in direct ByteBuffers outside the Java heap, so a full cache adds no GC pressure;
+ * a hit is served without touching the filesystem. Entries are invalidated when their logical path
+ * is released or replaced, and expire after a TTL so other nodes' changes are picked up.
+ */
+@Component
+@Slf4j
+public class HotMediaCache {
+
+    @Value("${app.serving.hot-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.serving.hot-cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    @Value("${app.serving.hot-cache.max-entry-size:262144}")
+    private long maxEntrySize;
+
+    @Value("${app.serving.hot-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    // Access-ordered, so iteration starts at the least recently used entry; guarded by this
+    private final LinkedHashMap<Path, CachedMedia> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long currentBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Whether content of this type is kept in the cache
+     */
+    public boolean isCacheable(String contentType) {
+        return enabled && contentType != null && contentType.startsWith("image/");
+    }
+
+    /**
+     * Whether content of this size and type is kept in the cache
+     */
+    public boolean isCacheable(long size, String contentType) {
+        return isCacheable(contentType) && size > 0 && size <= maxEntrySize;
+    }
+
+    /**
+     * Look up a file, counting the hit or miss
+     * @return the cached content, or null if absent or expired
+     */
+    public CachedMedia get(Path file) {
+        if (file == null) {
+            return null;
+        }
+        CachedMedia cached;
+        synchronized (this) {
+            cached = entries.get(file);
+            if (cached != null && System.currentTimeMillis() - cached.getCachedAt() > ttlSeconds * 1000) {
+                remove(file);
+                cached = null;
+            }
+        }
+        if (cached == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return cached;
+    }
+
+    /**
+     * Read content into the cache
+     * @param file The path the content is served under
+     * @param in The content (not closed by this method)
+     * @param size Exact size of the content
+     * @param etag Entity tag the content is served with
+     * @param lastModified Last-Modified the content is served with, in epoch milliseconds
+     * @return the cached content, or null if it did not have the expected size or no memory was available
+     */
+    public CachedMedia load(Path file, InputStream in, long size, String etag, long lastModified) throws IOException {
+        ByteBuffer buffer;
+        try {
+            buffer = ByteBuffer.allocateDirect((int) size);
+        } catch (OutOfMemoryError e) {
+            log.warn("No direct memory left for hot media cache (-XX:MaxDirectMemorySize), not caching {}", file);
+            return null;
+        }
+        ReadableByteChannel channel = Channels.newChannel(in);
+        while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+            // keep reading until the buffer is full or the content ends
+        }
+        if (buffer.hasRemaining() || in.read() != -1) {
+            // Changed while being read; serve it uncached
+            return null;
+        }
+        buffer.flip();
+        CachedMedia cached = new CachedMedia(buffer.asReadOnlyBuffer(), etag, lastModified, System.currentTimeMillis());
+
+        synchronized (this) {
+            remove(file);
+            entries.put(file, cached);
+            currentBytes += size;
+            Iterator<Map.Entry<Path, CachedMedia>> eldest = entries.entrySet().iterator();
+            while (currentBytes > maxBytes && eldest.hasNext()) {
+                currentBytes -= eldest.next().getValue().getSize();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+        return cached;
+    }
+
+    /**
+     * Drop a file from the cache after it was deleted or replaced
+     */
+    public void invalidate(Path file) {
+        if (file == null) {
+            return;
+        }
+        synchronized (this) {
+            remove(file.toAbsolutePath().normalize());
+        }
+    }
+
+    /**
+     * Hit ratio and occupancy since startup
+     */
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long lookups = hitCount + missCount;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRatio", lookups == 0 ? 0.0 : (double) hitCount / lookups);
+        stats.put("evictions", evictions.sum());
+        synchronized (this) {
+            stats.put("entries", entries.size());
+            stats.put("bytes", currentBytes);
+        }
+        stats.put("maxBytes", maxBytes);
+        stats.put("maxEntrySize", maxEntrySize);
+        return stats;
+    }
+
+    private void remove(Path file) {
+        CachedMedia removed = entries.remove(file);
+        if (removed != null) {
+            currentBytes -= removed.getSize();
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class CachedMedia {
+        private final ByteBuffer content;
+        private final String etag;
+        private final long lastModified;
+        private final long cachedAt;
+
+        public long getSize() {
+            return content.capacity();
+        }
+
+        /**
+         * A fresh stream over the cached bytes; the shared buffer is never consumed
+         */
+        public InputStream openStream() {
+            ByteBuffer view = content.duplicate();
+            return new InputStream() {
+                @Override
+                public int read() {
+                    return view.hasRemaining() ? view.get() & 0xff : -1;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    if (!view.hasRemaining()) {
+                        return -1;
+                    }
+                    int n = Math.min(len, view.remaining());
+                    view.get(b, off, n);
+                    return n;
+                }
+
+                @Override
+                public int available() {
+                    return view.remaining();
+                }
+            };
+        }
+    }
+}
@@ -1,26 +1,30 @@
 package com.donorbox.backend.service;
 
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Arrays;
-import java.util.List;
 import java.util.UUID;
 import com.donorbox.backend.util.DateTimeUtil;
 
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class ImageUploadService {
 
+    private final ImageVariantService imageVariantService;
+    private final ContentStorageService contentStorageService;
+    private final MediaTypeRegistry mediaTypeRegistry;
+
     @Value("${app.upload.dir:uploads}")
     private String uploadDir;
 
@@ -33,9 +37,6 @@ public class ImageUploadService {
     @Value("${app.upload.image.max-size:25MB}")
     private String maxFileSizeStr;
 
-    @Value("${app.upload.image.allowed-types:jpg,jpeg,png,gif,webp,bmp,tiff,svg}")
-    private String allowedTypesStr;
-
     // Default values (fallback)
     private static final long DEFAULT_MAX_FILE_SIZE = 25 * 1024 * 1024; // 25MB
 
@@ -55,14 +56,19 @@ public class ImageUploadService {
         // Generate unique filename
         String filename = generateUniqueFilename(file.getOriginalFilename());
         
-        // Copy file to upload directory
+        // Store content (deduplicated) and link it into the upload directory
         Path filePath = uploadPath.resolve(filename);
-        Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+        String relativePath = category + "/" + filename;
+        try (InputStream in = file.getInputStream()) {
+            contentStorageService.store(in, relativePath);
+        }
         
         log.info("Image uploaded successfully: {}", filePath.toString());
         
+        imageVariantService.scheduleVariants(relativePath);
+        
         // Return relative path for accessing the image
-        return category + "/" + filename;
+        return relativePath;
     }
 
     /**
@@ -76,13 +82,13 @@ public class ImageUploadService {
         }
         
         try {
-            Path fullPath = Paths.get(uploadDir).resolve(imagePath);
-            boolean deleted = Files.deleteIfExists(fullPath);
+            boolean deleted = contentStorageService.release(imagePath);
+            imageVariantService.deleteVariants(imagePath);
             
             if (deleted) {
-                log.info("Image deleted successfully: {}", fullPath.toString());
+                log.info("Image deleted successfully: {}", imagePath);
             } else {
-                log.warn("Image file not found for deletion: {}", fullPath.toString());
+                log.warn("Image file not found for deletion: {}", imagePath);
             }
             
             return deleted;
@@ -116,8 +122,7 @@ public class ImageUploadService {
             return false;
         }
         
-        Path fullPath = Paths.get(uploadDir).resolve(relativePath);
-        return Files.exists(fullPath);
+        return contentStorageService.exists(relativePath);
     }
 
     /**
@@ -164,11 +169,12 @@ public class ImageUploadService {
             throw new IOException("File name is null");
         }
 
-        List<String> allowedTypes = Arrays.asList(allowedTypesStr.split(","));
-        String extension = getFileExtension(originalFilename).toLowerCase();
-        if (!allowedTypes.contains(extension)) {
-            throw new IOException("File type not allowed. Allowed types: " + String.join(", ", allowedTypes));
+        if (!mediaTypeRegistry.isAllowed(originalFilename, MediaTypeRegistry.Category.IMAGE)) {
+            throw new IOException("File type not allowed. Allowed types: " +
+                mediaTypeRegistry.getAllowedTypes(MediaTypeRegistry.Category.IMAGE));
         }
+
+        mediaTypeRegistry.verifyContent(file);
     }
 
     private Path createUploadDirectory(String category) throws IOException {
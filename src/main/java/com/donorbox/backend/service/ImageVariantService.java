@@ -0,0 +1,588 @@
+package com.donorbox.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Generates downscaled copies of uploaded images at a fixed set of widths so list pages
+ * can fetch card-sized thumbnails instead of full-size originals, and an optimized full-size
+ * copy of JPEG and PNG uploads that is served in place of the original: metadata stripped,
+ * EXIF orientation applied, capped in size and re-encoded. The original is kept as uploaded.
+ * Both are written under {uploadDir}/variants/{category}/, sharded like the originals,
+ * as {name}_w{width}.{ext} and {name}_opt.{ext}. An optimized copy that would not be clearly
+ * smaller than the original is not kept; an empty {name}_opt.none marker records that the
+ * original is served as is.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImageVariantService {
+
+    private final ThreadPoolTaskExecutor imageTaskExecutor;
+    private final HotMediaCache hotMediaCache;
+    private final UploadPathResolver uploadPathResolver;
+
+    @Value("${app.image.variants.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.image.variants.widths:160,480,1080}")
+    private int[] widths;
+
+    @Value("${app.image.variants.jpeg-quality:0.82}")
+    private float jpegQuality;
+
+    @Value("${app.image.variants.on-demand-timeout-ms:5000}")
+    private long onDemandTimeoutMs;
+
+    @Value("${app.image.variants.max-source-pixels:100000000}")
+    private long maxSourcePixels;
+
+    @Value("${app.image.variants.source-width-cache-size:10000}")
+    private int sourceWidthCacheSize;
+
+    @Value("${app.image.optimize.enabled:true}")
+    private boolean optimizeEnabled;
+
+    // Longest side of the optimized copy; larger originals are scaled down to it
+    @Value("${app.image.optimize.max-dimension:2560}")
+    private int maxDimension;
+
+    @Value("${app.image.optimize.jpeg-quality:0.85}")
+    private float optimizeQuality;
+
+    // Generation in progress per original, so concurrent requests share one decode
+    private final Map<Path, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    // Source width per original (0 = not decodable), so small or unsupported images skip generation.
+    // Bounded by source-width-cache-size.
+    private final Map<Path, Integer> sourceWidths = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        widths = Arrays.stream(widths).filter(w -> w > 0).distinct().sorted().toArray();
+    }
+
+    /**
+     * Queue the optimized copy and variant generation for a freshly uploaded image
+     * @param relativePath The relative path returned by the upload service (category/filename)
+     */
+    public void scheduleVariants(String relativePath) {
+        if ((!enabled && !optimizeEnabled) || relativePath == null) {
+            return;
+        }
+        Path original = uploadPathResolver.resolve(relativePath);
+        try {
+            generateAsync(original);
+        } catch (RejectedExecutionException e) {
+            log.warn("Image variant queue full, {} will be generated on demand", relativePath);
+        }
+    }
+
+    /**
+     * Resolve the file to serve for a requested display width
+     * @param original The original image path
+     * @param requestedWidth The width requested by the client
+     * @return the smallest variant at least as wide as requested, or the full-size image if no such variant applies
+     */
+    public Path resolveVariant(Path original, int requestedWidth) {
+        if (!enabled || original == null || requestedWidth <= 0 || !Files.isRegularFile(original)) {
+            return resolveOptimized(original);
+        }
+        original = original.toAbsolutePath().normalize();
+        int width = Arrays.stream(widths).filter(w -> w >= requestedWidth).findFirst().orElse(-1);
+        if (width == -1 || variantFormat(original) == null) {
+            return resolveOptimized(original);
+        }
+        Integer sourceWidth = sourceWidths.get(original);
+        if (sourceWidth != null && sourceWidth <= width) {
+            return resolveOptimized(original);
+        }
+
+        Path variant = variantPath(original, width);
+        if (Files.isRegularFile(variant)) {
+            return variant;
+        }
+
+        awaitGeneration(original);
+        return Files.isRegularFile(variant) ? variant : resolveOptimized(original);
+    }
+
+    /**
+     * Resolve the file to serve for an image requested at full size
+     * @param original The original image path
+     * @return the optimized copy, or the original if it cannot be optimized
+     */
+    public Path resolveOptimized(Path original) {
+        if (!optimizeEnabled || original == null || !Files.isRegularFile(original)) {
+            return original;
+        }
+        original = original.toAbsolutePath().normalize();
+        if (optimizedFormat(original) == null) {
+            return original;
+        }
+        Path optimized = optimizedPath(original);
+        if (Files.isRegularFile(optimized)) {
+            return optimized;
+        }
+        if (Files.exists(optimizedMarkerPath(original))) {
+            return original;
+        }
+        Integer sourceWidth = sourceWidths.get(original);
+        if (sourceWidth != null && sourceWidth == 0) {
+            return original;
+        }
+
+        // Images uploaded before optimization existed are optimized on first request
+        awaitGeneration(original);
+        return Files.isRegularFile(optimized) ? optimized : original;
+    }
+
+    /**
+     * Delete all generated variants of an image
+     * @param relativePath The relative path of the original image (category/filename)
+     */
+    public void deleteVariants(String relativePath) {
+        if (relativePath == null || relativePath.trim().isEmpty()) {
+            return;
+        }
+        Path original = uploadPathResolver.shardedPath(relativePath);
+        sourceWidths.remove(original);
+        sourceWidths.remove(uploadPathResolver.flatPath(relativePath));
+        if (optimizedFormat(original) != null) {
+            Path optimized = optimizedPath(original);
+            hotMediaCache.invalidate(optimized);
+            try {
+                Files.deleteIfExists(optimized);
+                Files.deleteIfExists(optimizedMarkerPath(original));
+            } catch (IOException e) {
+                log.warn("Could not delete optimized copy of {}: {}", relativePath, e.getMessage());
+            }
+        }
+        for (int width : widths) {
+            Path variant = variantPath(original, width);
+            // Variants generated before sharding sit directly in the category directory
+            Path flatVariant = variantDirectory(original).resolve(variant.getFileName());
+            hotMediaCache.invalidate(variant);
+            hotMediaCache.invalidate(flatVariant);
+            try {
+                Files.deleteIfExists(variant);
+                if (uploadPathResolver.hasLegacyFiles()) {
+                    Files.deleteIfExists(flatVariant);
+                }
+            } catch (IOException e) {
+                log.warn("Could not delete {}w variant of {}: {}", width, relativePath, e.getMessage());
+            }
+        }
+    }
+
+    private void awaitGeneration(Path original) {
+        try {
+            generateAsync(original).get(onDemandTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException | TimeoutException e) {
+            log.debug("Variants of {} not ready, serving original: {}", original, e.toString());
+        } catch (ExecutionException e) {
+            // Already logged by generateVariants
+            log.debug("Failed to generate variants for {}: {}", original, e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private CompletableFuture<Void> generateAsync(Path original) {
+        CompletableFuture<Void> created = new CompletableFuture<>();
+        CompletableFuture<Void> existing = inFlight.putIfAbsent(original, created);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            imageTaskExecutor.execute(() -> {
+                try {
+                    generateVariants(original);
+                    created.complete(null);
+                } catch (Throwable t) {
+                    created.completeExceptionally(t);
+                } finally {
+                    inFlight.remove(original, created);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(original, created);
+            created.completeExceptionally(e);
+            throw e;
+        }
+        return created;
+    }
+
+    /**
+     * Write the missing copies of an original. An original that fails to decode or write is
+     * marked as not decodable, so requests serve it as uploaded instead of waiting on another
+     * attempt each time.
+     */
+    private void generateVariants(Path original) throws IOException {
+        try {
+            writeMissingCopies(original);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not generate copies of {}, serving it as uploaded: {}", original, e.toString());
+            rememberSourceWidth(original, 0);
+            throw e;
+        }
+    }
+
+    /**
+     * Decode the original once and write the missing optimized copy and every missing variant
+     * narrower than it
+     */
+    private void writeMissingCopies(Path original) throws IOException {
+        String format = variantFormat(original);
+        if (format == null || !Files.isRegularFile(original)) {
+            return;
+        }
+        Path optimized = optimizedPath(original);
+        boolean optimize = optimizeEnabled && optimizedFormat(original) != null && !Files.isRegularFile(optimized)
+                && !Files.exists(optimizedMarkerPath(original));
+        int orientation = "jpg".equals(format) ? readExifOrientation(original) : 1;
+
+        BufferedImage source;
+        int sourceWidth;
+        try (ImageInputStream in = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext()) {
+                rememberSourceWidth(original, 0);
+                return;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                // Orientations 5-8 turn the image by 90 degrees, swapping its displayed sides
+                boolean transposed = orientation >= 5;
+                sourceWidth = transposed ? reader.getHeight(0) : reader.getWidth(0);
+                int sourceHeight = transposed ? reader.getWidth(0) : reader.getHeight(0);
+                rememberSourceWidth(original, sourceWidth);
+
+                int largest = !enabled ? -1 : Arrays.stream(widths)
+                        .filter(w -> w < sourceWidth && !Files.isRegularFile(variantPath(original, w)))
+                        .max().orElse(-1);
+                if (largest == -1 && !optimize) {
+                    return;
+                }
+
+                // Subsample while decoding, keeping at least twice the largest target width for quality
+                // and the full size of the optimized copy
+                int factor = largest == -1 ? Integer.MAX_VALUE : sourceWidth / (largest * 2);
+                if (optimize) {
+                    factor = Math.min(factor, Math.max(sourceWidth, sourceHeight) / maxDimension);
+                }
+                factor = Math.max(1, factor);
+                if ((long) sourceWidth * sourceHeight / ((long) factor * factor) > maxSourcePixels) {
+                    log.warn("Skipping variants for {}: {}x{} exceeds pixel limit", original, sourceWidth, sourceHeight);
+                    rememberSourceWidth(original, 0);
+                    return;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(factor, factor, 0, 0);
+                source = orient(reader.read(0, param), orientation);
+            } finally {
+                reader.dispose();
+            }
+        }
+
+        if (optimize) {
+            writeOptimized(original, source, format, optimized);
+        }
+        if (!enabled) {
+            return;
+        }
+        for (int width : widths) {
+            Path variant = variantPath(original, width);
+            if (width >= sourceWidth || Files.isRegularFile(variant)) {
+                continue;
+            }
+            BufferedImage scaled = scaleToWidth(source, width, "png".equals(format));
+            writeAtomically(scaled, format, variant, jpegQuality);
+        }
+        log.info("Generated image variants for {}", original);
+    }
+
+    private void rememberSourceWidth(Path original, int width) {
+        if (sourceWidths.size() >= sourceWidthCacheSize && !sourceWidths.containsKey(original)) {
+            // A forgotten width only costs one more check of the original, so any entry may go
+            sourceWidths.keySet().stream().findAny().ifPresent(sourceWidths::remove);
+        }
+        sourceWidths.put(original, width);
+    }
+
+    /**
+     * Write the full-size copy served in place of the original, scaled down to the maximum
+     * dimension. Nothing but pixels is written, so EXIF, XMP and text chunks are dropped.
+     * Re-encoding an already well compressed image can make it larger, so like the gzip
+     * sidecars the copy is kept only if it saves at least a tenth of the original.
+     */
+    private void writeOptimized(Path original, BufferedImage source, String format, Path optimized) throws IOException {
+        BufferedImage image = source;
+        int longest = Math.max(source.getWidth(), source.getHeight());
+        if (longest > maxDimension) {
+            int width = Math.max(1, (int) Math.round((double) source.getWidth() * maxDimension / longest));
+            image = scaleToWidth(source, width, "png".equals(format));
+        }
+        Files.createDirectories(optimized.getParent());
+        Path temp = optimized.resolveSibling(".variant-" + UUID.randomUUID() + ".tmp");
+        try {
+            encode(image, format, temp, optimizeQuality);
+            long originalSize = Files.size(original);
+            long optimizedSize = Files.size(temp);
+            if (optimizedSize > originalSize - originalSize / 10) {
+                Path marker = optimizedMarkerPath(original);
+                Files.createDirectories(marker.getParent());
+                Files.write(marker, new byte[0]);
+                log.info("Not keeping optimized copy of {}: {} of {} bytes", original, optimizedSize, originalSize);
+                return;
+            }
+            Files.move(temp, optimized, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            log.info("Optimized {}: {}x{}, {} -> {} bytes", original, image.getWidth(), image.getHeight(),
+                    originalSize, optimizedSize);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private BufferedImage scaleToWidth(BufferedImage source, int width, boolean keepAlpha) {
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+
+        // Halve in steps first: a single bilinear pass from far above the target aliases badly
+        while (currentWidth / 2 >= width) {
+            currentWidth /= 2;
+            currentHeight = Math.max(1, currentHeight / 2);
+            current = draw(current, currentWidth, currentHeight, keepAlpha);
+        }
+        int height = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+        return draw(current, width, height, keepAlpha);
+    }
+
+    private BufferedImage draw(BufferedImage source, int width, int height, boolean keepAlpha) {
+        BufferedImage target = new BufferedImage(width, height,
+                keepAlpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            if (!keepAlpha) {
+                g.setColor(Color.WHITE);
+                g.fillRect(0, 0, width, height);
+            }
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private void writeAtomically(BufferedImage image, String format, Path target, float quality) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling(".variant-" + UUID.randomUUID() + ".tmp");
+        try {
+            encode(image, format, temp, quality);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void encode(BufferedImage image, String format, Path target, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if ("jpg".equals(format)) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(quality);
+                param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            } else if (param.canWriteCompressed()) {
+                // Lossless; quality 0 selects the strongest deflate level
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(0.0f);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private Path variantPath(Path original, int width) {
+        String filename = original.getFileName().toString();
+        int dot = filename.lastIndexOf('.');
+        String baseName = dot == -1 ? filename : filename.substring(0, dot);
+        return uploadPathResolver.shard(variantDirectory(original), baseName + "_w" + width + "." + variantFormat(original));
+    }
+
+    private Path optimizedPath(Path original) {
+        String filename = original.getFileName().toString();
+        int dot = filename.lastIndexOf('.');
+        String baseName = dot == -1 ? filename : filename.substring(0, dot);
+        return uploadPathResolver.shard(variantDirectory(original), baseName + "_opt." + optimizedFormat(original));
+    }
+
+    // Empty file recording that the original is served because re-encoding did not pay off
+    private Path optimizedMarkerPath(Path original) {
+        String filename = original.getFileName().toString();
+        int dot = filename.lastIndexOf('.');
+        String baseName = dot == -1 ? filename : filename.substring(0, dot);
+        return uploadPathResolver.shard(variantDirectory(original), baseName + "_opt.none");
+    }
+
+    private Path variantDirectory(Path original) {
+        String logicalPath = uploadPathResolver.toLogicalPath(original);
+        String category = logicalPath.substring(0, Math.max(logicalPath.lastIndexOf('/'), 0));
+        return uploadPathResolver.root().resolve(UploadPathResolver.VARIANTS_DIR).resolve(category);
+    }
+
+    /**
+     * Output format for an original: JPEG stays JPEG, other raster formats become PNG.
+     * WebP and SVG cannot be decoded by ImageIO and are always served as uploaded.
+     */
+    private String variantFormat(Path original) {
+        String filename = original.getFileName().toString().toLowerCase();
+        int dot = filename.lastIndexOf('.');
+        String extension = dot == -1 ? "" : filename.substring(dot + 1);
+        return switch (extension) {
+            case "jpg", "jpeg" -> "jpg";
+            case "png", "gif", "bmp", "tiff", "tif" -> "png";
+            default -> null;
+        };
+    }
+
+    /**
+     * Format of the optimized copy: only JPEG and PNG are re-encoded. GIFs may be animated and
+     * other formats are rare, so they are served as uploaded.
+     */
+    private String optimizedFormat(Path original) {
+        String format = variantFormat(original);
+        String filename = original.getFileName().toString().toLowerCase();
+        return "jpg".equals(format) || filename.endsWith(".png") ? format : null;
+    }
+
+    /**
+     * Apply an EXIF orientation to decoded pixels, since the copies are written without metadata
+     */
+    static BufferedImage orient(BufferedImage image, int orientation) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, w, 0);   // mirrored
+            case 3 -> new AffineTransform(-1, 0, 0, -1, w, h);  // rotated 180
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, h);   // flipped
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);    // transposed
+            case 6 -> new AffineTransform(0, 1, -1, 0, h, 0);   // rotated 90 clockwise
+            case 7 -> new AffineTransform(0, -1, -1, 0, h, w);  // transversed
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, w);   // rotated 90 counter-clockwise
+            default -> null;
+        };
+        if (transform == null) {
+            return image;
+        }
+        boolean transposed = orientation >= 5;
+        BufferedImage target = new BufferedImage(transposed ? h : w, transposed ? w : h,
+                image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.drawImage(image, transform, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    /**
+     * EXIF orientation (1-8) of a JPEG, read from its APP1 segment; 1 when there is none
+     */
+    static int readExifOrientation(Path jpeg) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(jpeg)))) {
+            if (in.readUnsignedShort() != 0xFFD8) {
+                return 1;
+            }
+            while (true) {
+                int marker = in.readUnsignedShort();
+                // Metadata segments all precede the image data
+                if ((marker & 0xFF00) != 0xFF00 || marker == 0xFFDA || marker == 0xFFD9) {
+                    return 1;
+                }
+                int length = in.readUnsignedShort() - 2;
+                if (marker != 0xFFE1) {
+                    in.skipNBytes(length);
+                    continue;
+                }
+                int orientation = exifOrientation(in.readNBytes(length));
+                if (orientation != 0) {
+                    return orientation;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            return 1;
+        }
+    }
+
+    /**
+     * Orientation tag of IFD0 in an APP1 payload, 0 if the segment is not EXIF (XMP also uses APP1)
+     */
+    private static int exifOrientation(byte[] app1) {
+        if (app1.length < 14 || app1[0] != 'E' || app1[1] != 'x' || app1[2] != 'i' || app1[3] != 'f') {
+            return 0;
+        }
+        // A TIFF header follows "Exif\0\0"
+        ByteBuffer tiff = ByteBuffer.wrap(app1, 6, app1.length - 6).slice();
+        tiff.order(tiff.get(0) == 'I' ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+        int ifd = tiff.getInt(4);
+        if (ifd < 8 || ifd + 2 > tiff.limit()) {
+            return 1;
+        }
+        int entries = tiff.getShort(ifd) & 0xFFFF;
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > tiff.limit()) {
+                break;
+            }
+            if ((tiff.getShort(entry) & 0xFFFF) == 0x0112) {
+                int value = tiff.getShort(entry + 8) & 0xFFFF;
+                return value >= 1 && value <= 8 ? value : 1;
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,126 @@
+package com.donorbox.backend.service;
+
+import com.donorbox.backend.entity.MediaObject;
+import com.donorbox.backend.repository.MediaObjectRepository;
+import com.donorbox.backend.util.DateTimeUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Read side of the media catalog (media_objects): describes, checks and lists stored media with
+ * indexed queries instead of probing the upload directory, and records which entity owns the
+ * media it references. Entries are written by {@link ContentStorageService} at upload time.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MediaCatalogService {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final MediaObjectRepository mediaObjectRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfill() {
+        int updated = mediaObjectRepository.backfillCategories();
+        if (updated > 0) {
+            log.info("Recorded the category of {} media catalog entries", updated);
+        }
+    }
+
+    /**
+     * Catalog entry of a logical path
+     * @param relativePath The logical path (category/filename)
+     * @return the entry, or empty for unknown or pre-content-addressing files
+     */
+    @Transactional(readOnly = true)
+    public Optional<MediaObject> find(String relativePath) {
+        return mediaObjectRepository.findByPath(relativePath);
+    }
+
+    /**
+     * Placeholder (BlurHash) of an image
+     * @param relativePath The logical path (category/filename), may be null
+     * @return the placeholder, or null for unknown paths and media without one
+     */
+    @Transactional(readOnly = true)
+    public String placeholderOf(String relativePath) {
+        if (relativePath == null || relativePath.isBlank()) {
+            return null;
+        }
+        return mediaObjectRepository.findByPath(relativePath.trim()).map(MediaObject::getPlaceholder).orElse(null);
+    }
+
+    /**
+     * Page through the media of a category, newest first
+     * @param category The category, or null for all media
+     */
+    @Transactional(readOnly = true)
+    public Page<MediaObject> listByCategory(String category, int page, int size) {
+        Pageable pageable = pageRequest(page, size);
+        return category == null ? mediaObjectRepository.findAll(pageable)
+                : mediaObjectRepository.findByCategory(category, pageable);
+    }
+
+    /**
+     * Page through the media attached to an entity, newest first
+     * @param ownerType cause, event, blog or submission
+     * @param ownerId The entity id
+     */
+    @Transactional(readOnly = true)
+    public Page<MediaObject> listByOwner(String ownerType, Long ownerId, int page, int size) {
+        return mediaObjectRepository.findByOwnerTypeAndOwnerId(ownerType, ownerId, pageRequest(page, size));
+    }
+
+    /**
+     * Record an entity as the owner of the media paths it references. Blank paths are ignored,
+     * and paths without a catalog entry are left alone.
+     * @param ownerType cause, event, blog or submission
+     * @param ownerId The entity id
+     * @param paths Logical paths referenced by the entity; single paths or lists
+     */
+    @Transactional
+    public void assignOwner(String ownerType, Long ownerId, Object... paths) {
+        if (ownerId == null) {
+            return;
+        }
+        Set<String> referenced = new LinkedHashSet<>();
+        for (Object path : paths) {
+            if (path instanceof Collection<?> list) {
+                list.forEach(item -> addPath(referenced, item));
+            } else {
+                addPath(referenced, path);
+            }
+        }
+        if (!referenced.isEmpty()) {
+            mediaObjectRepository.assignOwner(ownerType, ownerId, new ArrayList<>(referenced),
+                    DateTimeUtil.getCurrentTimeForDatabase());
+        }
+    }
+
+    private static void addPath(Set<String> paths, Object path) {
+        if (path instanceof String value && !value.isBlank()) {
+            paths.add(value.trim());
+        }
+    }
+
+    private static Pageable pageRequest(int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return PageRequest.of(Math.max(0, page), pageSize, Sort.by(Sort.Direction.DESC, "createdAt"));
+    }
+}
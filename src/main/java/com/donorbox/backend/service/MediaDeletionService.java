@@ -0,0 +1,115 @@
+package com.donorbox.backend.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Deletes media off the request path. Paths dropped inside a transaction are deleted only after it
+ * commits, so a rollback never loses files the database still points at; outside a transaction
+ * they are queued right away. Batches run on a bounded worker and failed deletions are retried
+ * with backoff; anything still left is picked up by the orphaned media collector.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MediaDeletionService {
+
+    private final ContentStorageService contentStorageService;
+    private final ImageVariantService imageVariantService;
+    private final ThreadPoolTaskExecutor mediaDeletionExecutor;
+    private final TaskScheduler taskScheduler;
+
+    @Value("${app.media.deletion.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.media.deletion.retry-delay-ms:5000}")
+    private long retryDelayMs;
+
+    /**
+     * Delete media once the current transaction has committed, or right away without one.
+     * Null and blank paths are ignored.
+     * @param paths Logical paths (category/filename)
+     */
+    public void deleteAfterCommit(String... paths) {
+        deleteAfterCommit(Arrays.asList(paths));
+    }
+
+    /**
+     * Delete media once the current transaction has committed, or right away without one.
+     * Null and blank paths are ignored.
+     * @param paths Logical paths (category/filename)
+     */
+    public void deleteAfterCommit(Collection<String> paths) {
+        Set<String> batch = new LinkedHashSet<>();
+        for (String path : paths) {
+            if (path != null && !path.trim().isEmpty()) {
+                batch.add(path.trim());
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(new ArrayList<>(batch), 1);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(new ArrayList<>(batch), 1);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    log.info("Transaction rolled back, keeping media {}", batch);
+                }
+            }
+        });
+    }
+
+    private void submit(List<String> batch, int attempt) {
+        mediaDeletionExecutor.execute(() -> deleteBatch(batch, attempt));
+    }
+
+    private void deleteBatch(List<String> batch, int attempt) {
+        List<String> failed = new ArrayList<>();
+        for (String path : batch) {
+            try {
+                if (contentStorageService.release(path)) {
+                    log.info("Media deleted: {}", path);
+                } else {
+                    log.warn("Media file not found for deletion: {}", path);
+                }
+                imageVariantService.deleteVariants(path);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not delete media {} (attempt {}/{}): {}", path, attempt, maxAttempts, e.getMessage());
+                failed.add(path);
+            }
+        }
+        if (failed.isEmpty()) {
+            return;
+        }
+        if (attempt >= maxAttempts) {
+            log.error("Giving up deleting media {} after {} attempts; the orphaned media collector will remove it", failed, attempt);
+            return;
+        }
+        // Back off linearly, then retry the failed paths as one batch
+        taskScheduler.schedule(() -> submit(failed, attempt + 1), Instant.now().plusMillis(retryDelayMs * attempt));
+    }
+}
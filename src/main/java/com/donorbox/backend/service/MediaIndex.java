@@ -0,0 +1,120 @@
+package com.donorbox.backend.service;
+
+import com.donorbox.backend.repository.MediaObjectRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * In-memory index of every stored logical path (category/filename), so requests for media that
+ * does not exist are answered with 404 without touching the disk. Built at startup by walking the
+ * category directories in parallel and reading the catalog, then kept current on store and release.
+ * Until the build finishes every path is treated as possibly present.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MediaIndex {
+
+    private final MediaObjectRepository mediaObjectRepository;
+    private final UploadPathResolver uploadPathResolver;
+
+    @Value("${app.serving.media-index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.storage.type:local}")
+    private String storageType;
+
+    private final Set<String> paths = ConcurrentHashMap.newKeySet();
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            // One task per first-level shard, so large categories are walked in parallel too
+            List<Path> directories = new ArrayList<>();
+            for (Path category : uploadPathResolver.categoryDirectories()) {
+                try (Stream<Path> children = Files.list(category)) {
+                    children.forEach(directories::add);
+                }
+            }
+            directories.parallelStream().forEach(this::index);
+            paths.addAll(mediaObjectRepository.findAllPaths());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not build media index, missing media will be looked up on disk: {}", e.getMessage());
+            return;
+        }
+        ready = true;
+        log.info("Media index built with {} paths in {} ms", paths.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Whether a logical path is certainly absent. False while the index is still being built.
+     * @param relativePath The logical path (category/filename)
+     */
+    public boolean isKnownMissing(String relativePath) {
+        if (!enabled || !ready || paths.contains(relativePath)) {
+            return false;
+        }
+        if (!"local".equals(storageType)) {
+            // Other nodes upload to the shared store too: confirm with the catalog and learn the path
+            if (mediaObjectRepository.findByPath(relativePath).isPresent()) {
+                paths.add(relativePath);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Record a newly stored logical path
+     */
+    public void add(String relativePath) {
+        paths.add(relativePath);
+    }
+
+    /**
+     * Forget a released logical path
+     */
+    public void remove(String relativePath) {
+        paths.remove(relativePath);
+    }
+
+    /**
+     * Index a flat-layout file, or every file under a first-level shard directory
+     */
+    private void index(Path path) {
+        if (UploadPathResolver.isFlatFile(path)) {
+            paths.add(uploadPathResolver.toLogicalPath(path));
+            return;
+        }
+        if (!Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(path, 2)) {
+            files.filter(file -> file.getNameCount() - path.getNameCount() == 2)
+                    .filter(UploadPathResolver::isFlatFile)
+                    .forEach(file -> paths.add(uploadPathResolver.toLogicalPath(file)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
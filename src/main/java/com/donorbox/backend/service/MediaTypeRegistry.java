@@ -0,0 +1,340 @@
+package com.donorbox.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Single source of truth for upload file types: extension to MIME type to category, plus the
+ * extensions each kind of upload accepts (app.upload.*.allowed-types). Built once at startup and
+ * immutable afterwards; lookups scan a small array and allocate nothing.
+ * Also recognises file formats from their leading bytes, so a file whose content does not match
+ * its extension is rejected.
+ */
+@Component
+@Slf4j
+public class MediaTypeRegistry {
+
+    public static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    // Leading bytes inspected to recognise a file's format
+    public static final int SNIFF_LENGTH = 64;
+
+    // Formats without compression of their own, which gzip shrinks considerably
+    private static final Set<String> COMPRESSIBLE_EXTENSIONS = Set.of("svg", "bmp", "tif", "tiff", "doc");
+
+    public enum Category {
+        IMAGE, VIDEO, DOCUMENT
+    }
+
+    /**
+     * File formats as recognised from their magic numbers
+     */
+    public enum Signature {
+        JPEG, PNG, GIF, BMP, TIFF, WEBP, SVG,
+        ISO_BMFF, AVI, MATROSKA, ASF, FLV, OGG,
+        PDF, OLE2, ZIP,
+        UNKNOWN
+    }
+
+    private static final List<MediaTypeInfo> KNOWN_TYPES = List.of(
+            new MediaTypeInfo("jpg", "image/jpeg", Category.IMAGE, Signature.JPEG),
+            new MediaTypeInfo("jpeg", "image/jpeg", Category.IMAGE, Signature.JPEG),
+            new MediaTypeInfo("png", "image/png", Category.IMAGE, Signature.PNG),
+            new MediaTypeInfo("gif", "image/gif", Category.IMAGE, Signature.GIF),
+            new MediaTypeInfo("webp", "image/webp", Category.IMAGE, Signature.WEBP),
+            new MediaTypeInfo("bmp", "image/bmp", Category.IMAGE, Signature.BMP),
+            new MediaTypeInfo("tiff", "image/tiff", Category.IMAGE, Signature.TIFF),
+            new MediaTypeInfo("tif", "image/tiff", Category.IMAGE, Signature.TIFF),
+            new MediaTypeInfo("svg", "image/svg+xml", Category.IMAGE, Signature.SVG),
+            new MediaTypeInfo("mp4", "video/mp4", Category.VIDEO, Signature.ISO_BMFF),
+            new MediaTypeInfo("mov", "video/quicktime", Category.VIDEO, Signature.ISO_BMFF),
+            new MediaTypeInfo("m4v", "video/x-m4v", Category.VIDEO, Signature.ISO_BMFF),
+            new MediaTypeInfo("3gp", "video/3gpp", Category.VIDEO, Signature.ISO_BMFF),
+            new MediaTypeInfo("avi", "video/x-msvideo", Category.VIDEO, Signature.AVI),
+            new MediaTypeInfo("wmv", "video/x-ms-wmv", Category.VIDEO, Signature.ASF),
+            new MediaTypeInfo("flv", "video/x-flv", Category.VIDEO, Signature.FLV),
+            new MediaTypeInfo("webm", "video/webm", Category.VIDEO, Signature.MATROSKA),
+            new MediaTypeInfo("mkv", "video/x-matroska", Category.VIDEO, Signature.MATROSKA),
+            new MediaTypeInfo("ogv", "video/ogg", Category.VIDEO, Signature.OGG),
+            new MediaTypeInfo("pdf", "application/pdf", Category.DOCUMENT, Signature.PDF),
+            new MediaTypeInfo("doc", "application/msword", Category.DOCUMENT, Signature.OLE2),
+            new MediaTypeInfo("docx", "application/vnd.openxmlformats-officedocument.wordprocessingml.document",
+                    Category.DOCUMENT, Signature.ZIP));
+
+    @Value("${app.upload.image.allowed-types:jpg,jpeg,png,gif,webp,bmp,tiff,svg}")
+    private String allowedImageTypes;
+
+    @Value("${app.upload.video.allowed-types:mp4,avi,mov,wmv,flv,webm,mkv,m4v,3gp,ogv}")
+    private String allowedVideoTypes;
+
+    @Value("${app.upload.document.allowed-types:jpg,jpeg,png,gif,webp,pdf,doc,docx}")
+    private String allowedDocumentTypes;
+
+    // Open-addressed hash table of types by extension. Lookups hash and compare the extension
+    // in place, case-insensitively, so serving a file neither scans all types nor allocates.
+    private MediaTypeInfo[] byExtension;
+    private int mask;
+    private final Map<Category, Set<MediaTypeInfo>> allowed = new EnumMap<>(Category.class);
+    private final Map<Category, String> allowedDescriptions = new EnumMap<>(Category.class);
+
+    @PostConstruct
+    void init() {
+        List<MediaTypeInfo> all = new ArrayList<>(KNOWN_TYPES);
+        register(all, Category.IMAGE, allowedImageTypes);
+        register(all, Category.VIDEO, allowedVideoTypes);
+        register(all, Category.DOCUMENT, allowedDocumentTypes);
+        // At most half full, so every probe sequence reaches an empty slot
+        int capacity = 16;
+        while (capacity < all.size() * 2) {
+            capacity <<= 1;
+        }
+        byExtension = new MediaTypeInfo[capacity];
+        mask = capacity - 1;
+        for (MediaTypeInfo type : all) {
+            String extension = type.getExtension();
+            int slot = extensionHash(extension, 0) & mask;
+            while (byExtension[slot] != null && !byExtension[slot].getExtension().equals(extension)) {
+                slot = (slot + 1) & mask;
+            }
+            if (byExtension[slot] == null) {
+                byExtension[slot] = type;
+            }
+        }
+    }
+
+    /**
+     * Type information for a filename's extension (case-insensitive)
+     * @return the type, or null if the extension is unknown
+     */
+    public MediaTypeInfo lookup(String filename) {
+        if (filename == null) {
+            return null;
+        }
+        int dot = filename.lastIndexOf('.');
+        if (dot == -1) {
+            return null;
+        }
+        int start = dot + 1;
+        int length = filename.length() - start;
+        for (int slot = extensionHash(filename, start) & mask; ; slot = (slot + 1) & mask) {
+            MediaTypeInfo type = byExtension[slot];
+            if (type == null) {
+                return null;
+            }
+            String extension = type.getExtension();
+            if (extension.length() == length && filename.regionMatches(true, start, extension, 0, length)) {
+                return type;
+            }
+        }
+    }
+
+    /**
+     * Content type to serve a file with
+     * @return the MIME type, or application/octet-stream for unknown extensions
+     */
+    public String getContentType(String filename) {
+        MediaTypeInfo type = lookup(filename);
+        return type != null ? type.getMimeType() : DEFAULT_CONTENT_TYPE;
+    }
+
+    /**
+     * Whether a file is of a type worth gzip-compressing for transfer or archiving
+     */
+    public boolean isCompressible(String filename) {
+        MediaTypeInfo type = lookup(filename);
+        return type != null && COMPRESSIBLE_EXTENSIONS.contains(type.getExtension());
+    }
+
+    /**
+     * Whether a file's extension is one of a category's allowed upload types
+     */
+    public boolean isAllowed(String filename, Category category) {
+        MediaTypeInfo type = lookup(filename);
+        return type != null && allowed.get(category).contains(type);
+    }
+
+    /**
+     * Comma separated allowed extensions of a category, for error messages
+     */
+    public String getAllowedTypes(Category category) {
+        return allowedDescriptions.get(category);
+    }
+
+    /**
+     * Recognise a file format from its leading bytes
+     * @param head The first bytes of the file (up to {@link #SNIFF_LENGTH})
+     * @param length Number of valid bytes in head
+     */
+    public Signature sniff(byte[] head, int length) {
+        if (startsWith(head, length, 0, 0xFF, 0xD8, 0xFF)) {
+            return Signature.JPEG;
+        }
+        if (startsWith(head, length, 0, 0x89, 'P', 'N', 'G')) {
+            return Signature.PNG;
+        }
+        if (startsWith(head, length, 0, 'G', 'I', 'F', '8')) {
+            return Signature.GIF;
+        }
+        if (startsWith(head, length, 0, 'B', 'M')) {
+            return Signature.BMP;
+        }
+        if (startsWith(head, length, 0, 'I', 'I', 0x2A, 0x00) || startsWith(head, length, 0, 'M', 'M', 0x00, 0x2A)) {
+            return Signature.TIFF;
+        }
+        if (startsWith(head, length, 0, 'R', 'I', 'F', 'F')) {
+            if (startsWith(head, length, 8, 'W', 'E', 'B', 'P')) {
+                return Signature.WEBP;
+            }
+            if (startsWith(head, length, 8, 'A', 'V', 'I', ' ')) {
+                return Signature.AVI;
+            }
+        }
+        if (startsWith(head, length, 4, 'f', 't', 'y', 'p')            // MP4, MOV, M4V, 3GP
+                || startsWith(head, length, 4, 'm', 'o', 'o', 'v')     // older QuickTime
+                || startsWith(head, length, 4, 'm', 'd', 'a', 't')
+                || startsWith(head, length, 4, 'w', 'i', 'd', 'e')
+                || startsWith(head, length, 4, 'f', 'r', 'e', 'e')) {
+            return Signature.ISO_BMFF;
+        }
+        if (startsWith(head, length, 0, 0x1A, 0x45, 0xDF, 0xA3)) {
+            return Signature.MATROSKA;
+        }
+        if (startsWith(head, length, 0, 0x30, 0x26, 0xB2, 0x75)) {
+            return Signature.ASF;
+        }
+        if (startsWith(head, length, 0, 'F', 'L', 'V')) {
+            return Signature.FLV;
+        }
+        if (startsWith(head, length, 0, 'O', 'g', 'g', 'S')) {
+            return Signature.OGG;
+        }
+        if (startsWith(head, length, 0, '%', 'P', 'D', 'F')) {
+            return Signature.PDF;
+        }
+        if (startsWith(head, length, 0, 0xD0, 0xCF, 0x11, 0xE0, 0xA1, 0xB1, 0x1A, 0xE1)) {
+            return Signature.OLE2;
+        }
+        if (startsWith(head, length, 0, 'P', 'K', 0x03, 0x04)) {
+            return Signature.ZIP;
+        }
+        // SVG is text: an XML prolog or <svg root after an optional BOM and whitespace
+        int start = startsWith(head, length, 0, 0xEF, 0xBB, 0xBF) ? 3 : 0;
+        while (start < length && (head[start] == ' ' || head[start] == '\t' || head[start] == '\r' || head[start] == '\n')) {
+            start++;
+        }
+        if (startsWithText(head, length, start, "<?xml") || startsWithText(head, length, start, "<svg")
+                || startsWithText(head, length, start, "<!DOCTYPE svg")) {
+            return Signature.SVG;
+        }
+        return Signature.UNKNOWN;
+    }
+
+    /**
+     * Check that content starts with the magic number of the format its extension claims
+     * @param type The type from the file's extension
+     * @param head The first bytes of the file
+     * @param length Number of valid bytes in head
+     */
+    public boolean matchesContent(MediaTypeInfo type, byte[] head, int length) {
+        // Extensions configured without a known signature cannot be checked
+        return type.getSignature() == Signature.UNKNOWN || sniff(head, length) == type.getSignature();
+    }
+
+    /**
+     * Reject an uploaded file whose content is not the format its extension claims
+     * @throws IOException if the content does not match, or the type is unknown
+     */
+    public void verifyContent(MultipartFile file) throws IOException {
+        MediaTypeInfo type = lookup(file.getOriginalFilename());
+        if (type == null) {
+            throw new IOException("Unknown file type: " + file.getOriginalFilename());
+        }
+        byte[] head;
+        try (InputStream in = file.getInputStream()) {
+            head = in.readNBytes(SNIFF_LENGTH);
+        }
+        if (!matchesContent(type, head, head.length)) {
+            throw new IOException("File content does not match its type: " + file.getOriginalFilename());
+        }
+    }
+
+    private void register(List<MediaTypeInfo> all, Category category, String allowedTypes) {
+        List<String> extensions = Arrays.stream(allowedTypes.split(","))
+                .map(String::trim)
+                .map(String::toLowerCase)
+                .filter(extension -> !extension.isEmpty())
+                .distinct()
+                .toList();
+        Set<MediaTypeInfo> allowedTypesOfCategory = extensions.stream().map(extension -> {
+            for (MediaTypeInfo type : all) {
+                if (type.getExtension().equals(extension)) {
+                    return type;
+                }
+            }
+            log.warn("No MIME type known for allowed {} extension '{}', serving it as {}",
+                    category.name().toLowerCase(), extension, DEFAULT_CONTENT_TYPE);
+            MediaTypeInfo type = new MediaTypeInfo(extension, DEFAULT_CONTENT_TYPE, category, Signature.UNKNOWN);
+            all.add(type);
+            return type;
+        }).collect(Collectors.toUnmodifiableSet());
+        allowed.put(category, allowedTypesOfCategory);
+        allowedDescriptions.put(category, String.join(", ", extensions));
+    }
+
+    // Hash of name[start..], folding case the way String.regionMatches(true, ...) compares it
+    private static int extensionHash(String name, int start) {
+        int hash = 0;
+        for (int i = start; i < name.length(); i++) {
+            hash = 31 * hash + Character.toLowerCase(Character.toUpperCase(name.charAt(i)));
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean startsWith(byte[] data, int length, int offset, int... signature) {
+        if (length < offset + signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((data[offset + i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean startsWithText(byte[] data, int length, int offset, String text) {
+        if (length < offset + text.length()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (data[offset + i] != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class MediaTypeInfo {
+        private final String extension;
+        private final String mimeType;
+        private final Category category;
+        private final Signature signature;
+    }
+}
@@ -1,27 +1,45 @@
 package com.donorbox.backend.service;
 
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
-
+import org.apache.tomcat.util.http.fileupload.FileItemIterator;
+import org.apache.tomcat.util.http.fileupload.FileItemStream;
+import org.apache.tomcat.util.http.fileupload.FileUpload;
+import org.apache.tomcat.util.http.fileupload.FileUploadException;
+import org.apache.tomcat.util.http.fileupload.impl.FileUploadIOException;
+import org.apache.tomcat.util.http.fileupload.servlet.ServletRequestContext;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
+import java.util.regex.Pattern;
 import com.donorbox.backend.util.DateTimeUtil;
 
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class MediaUploadService {
 
+    private final ImageVariantService imageVariantService;
+    private final ContentStorageService contentStorageService;
+    private final ParallelUploadService parallelUploadService;
+    private final MediaTypeRegistry mediaTypeRegistry;
+
     @Value("${app.upload.dir:uploads}")
     private String uploadDir;
 
@@ -37,16 +55,16 @@ public class MediaUploadService {
     @Value("${app.upload.video.max-size:100MB}")
     private String maxVideoSizeStr;
 
-    @Value("${app.upload.image.allowed-types:jpg,jpeg,png,gif,webp,bmp,tiff,svg}")
-    private String allowedImageTypesStr;
-
-    @Value("${app.upload.video.allowed-types:mp4,avi,mov,wmv,flv,webm,mkv,m4v,3gp,ogv}")
-    private String allowedVideoTypesStr;
+    // The streaming parser bypasses the container's multipart limits, so it applies this one itself
+    @Value("${spring.servlet.multipart.max-request-size:10MB}")
+    private DataSize maxRequestSize;
 
     // Default file size limits (fallback)
     private static final long DEFAULT_MAX_IMAGE_SIZE = 25 * 1024 * 1024; // 25MB for images
     private static final long DEFAULT_MAX_VIDEO_SIZE = 100 * 1024 * 1024; // 100MB for videos
 
+    private static final Pattern SAFE_CATEGORY = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
     /**
      * Upload a media file (image or video) to local storage
      * @param file The multipart file to upload
@@ -63,14 +81,21 @@ public class MediaUploadService {
         // Generate unique filename
         String filename = generateUniqueFilename(file.getOriginalFilename());
         
-        // Copy file to upload directory
+        // Store content (deduplicated) and link it into the upload directory
         Path filePath = uploadPath.resolve(filename);
-        Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+        String relativePath = category + "/" + filename;
+        try (InputStream in = file.getInputStream()) {
+            contentStorageService.store(in, relativePath);
+        }
         
         log.info("Media uploaded successfully: {}", filePath.toString());
         
+        if (isImageFile(filename)) {
+            imageVariantService.scheduleVariants(relativePath);
+        }
+        
         // Return relative path for accessing the media
-        return category + "/" + filename;
+        return relativePath;
     }
 
     /**
@@ -97,6 +122,58 @@ public class MediaUploadService {
         return uploadMedia(file, category);
     }
 
+    /**
+     * Upload media files by streaming the multipart request body straight into storage.
+     * Nothing is spooled by the container first: each file part is type-checked from its
+     * first bytes, size-limited while it is read, and hashed and written exactly once.
+     * Files already stored by this request are removed if a later part fails.
+     * @param request The multipart/form-data request (its body must not have been parsed yet)
+     * @param category The category for organizing media
+     * @return List of relative paths to access the uploaded media files
+     * @throws IOException if the request is not multipart, a file is rejected or storage fails
+     */
+    public List<String> uploadMediaStream(HttpServletRequest request, String category) throws IOException {
+        String contentType = request.getContentType();
+        if (contentType == null || !contentType.toLowerCase().startsWith("multipart/")) {
+            throw new IOException("Request is not a multipart upload");
+        }
+
+        if (!isValidCategory(category)) {
+            throw new IOException("Invalid category: " + category);
+        }
+
+        FileUpload upload = new FileUpload();
+        upload.setFileSizeMax(Math.max(parseFileSize(maxImageSizeStr), parseFileSize(maxVideoSizeStr)));
+        upload.setSizeMax(maxRequestSize.toBytes());
+
+        List<String> uploadedPaths = new ArrayList<>();
+        try {
+            FileItemIterator items = upload.getItemIterator(new ServletRequestContext(request));
+            while (items.hasNext()) {
+                FileItemStream item = items.next();
+                if (item.isFormField() || item.getName() == null || item.getName().isBlank()) {
+                    continue;
+                }
+                try (InputStream in = item.openStream()) {
+                    uploadedPaths.add(uploadMediaStream(in, item.getName(), category));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // All or nothing: do not leave earlier files of a failed request behind
+            deleteMultipleMedia(uploadedPaths);
+            // Limits hit while a part is read arrive wrapped, with the reason only on the cause
+            if (e instanceof FileUploadIOException && e.getCause() instanceof FileUploadException) {
+                throw (FileUploadException) e.getCause();
+            }
+            throw e;
+        }
+
+        if (uploadedPaths.isEmpty()) {
+            throw new IOException("No valid files were uploaded");
+        }
+        return uploadedPaths;
+    }
+
     /**
      * Delete a media file from local storage
      * @param mediaPath The relative path of the media to delete
@@ -108,13 +185,13 @@ public class MediaUploadService {
         }
         
         try {
-            Path fullPath = Paths.get(uploadDir).resolve(mediaPath);
-            boolean deleted = Files.deleteIfExists(fullPath);
+            boolean deleted = contentStorageService.release(mediaPath);
+            imageVariantService.deleteVariants(mediaPath);
             
             if (deleted) {
-                log.info("Media deleted successfully: {}", fullPath.toString());
+                log.info("Media deleted successfully: {}", mediaPath);
             } else {
-                log.warn("Media file not found for deletion: {}", fullPath.toString());
+                log.warn("Media file not found for deletion: {}", mediaPath);
             }
             
             return deleted;
@@ -148,8 +225,7 @@ public class MediaUploadService {
             return false;
         }
         
-        Path fullPath = Paths.get(uploadDir).resolve(relativePath);
-        return Files.exists(fullPath);
+        return contentStorageService.exists(relativePath);
     }
 
     /**
@@ -158,10 +234,7 @@ public class MediaUploadService {
      * @return true if the file is an image
      */
     public boolean isImageFile(String filename) {
-        if (filename == null) return false;
-        String extension = getFileExtension(filename).toLowerCase();
-        List<String> allowedTypes = Arrays.asList(allowedImageTypesStr.split(","));
-        return allowedTypes.contains(extension);
+        return mediaTypeRegistry.isAllowed(filename, MediaTypeRegistry.Category.IMAGE);
     }
 
     /**
@@ -170,10 +243,7 @@ public class MediaUploadService {
      * @return true if the file is a video
      */
     public boolean isVideoFile(String filename) {
-        if (filename == null) return false;
-        String extension = getFileExtension(filename).toLowerCase();
-        List<String> allowedTypes = Arrays.asList(allowedVideoTypesStr.split(","));
-        return allowedTypes.contains(extension);
+        return mediaTypeRegistry.isAllowed(filename, MediaTypeRegistry.Category.VIDEO);
     }
 
     /**
@@ -219,57 +289,33 @@ public class MediaUploadService {
         return null;
     }
 
+    /**
+     * Maximum allowed size for a media type
+     * @param mediaType IMAGE or VIDEO
+     * @return Size limit in bytes
+     */
+    public long getMaxFileSize(FileMediaType mediaType) {
+        return parseFileSize(mediaType == FileMediaType.IMAGE ? maxImageSizeStr : maxVideoSizeStr);
+    }
+
+    /**
+     * Check that a category is safe to use as an upload directory name
+     * @param category The category to check
+     * @return true if it only contains letters, digits, '-' and '_' and is not one of the
+     *         storage's internal directories (see {@link UploadPathResolver#INTERNAL_DIRS})
+     */
+    public boolean isValidCategory(String category) {
+        return category != null && SAFE_CATEGORY.matcher(category).matches()
+                && !UploadPathResolver.INTERNAL_DIRS.contains(category.toLowerCase(Locale.ROOT));
+    }
+
     /**
      * Get content type for serving media files
      * @param filename The filename to determine content type for
      * @return Content type string
      */
     public String getContentType(String filename) {
-        String extension = getFileExtension(filename).toLowerCase();
-        
-        // Image content types
-        switch (extension) {
-            case "jpg":
-            case "jpeg":
-                return "image/jpeg";
-            case "png":
-                return "image/png";
-            case "gif":
-                return "image/gif";
-            case "webp":
-                return "image/webp";
-            case "bmp":
-                return "image/bmp";
-            case "tiff":
-                return "image/tiff";
-            case "svg":
-                return "image/svg+xml";
-                
-            // Video content types
-            case "mp4":
-                return "video/mp4";
-            case "avi":
-                return "video/x-msvideo";
-            case "mov":
-                return "video/quicktime";
-            case "wmv":
-                return "video/x-ms-wmv";
-            case "flv":
-                return "video/x-flv";
-            case "webm":
-                return "video/webm";
-            case "mkv":
-                return "video/x-matroska";
-            case "m4v":
-                return "video/x-m4v";
-            case "3gp":
-                return "video/3gpp";
-            case "ogv":
-                return "video/ogg";
-                
-            default:
-                return "application/octet-stream";
-        }
+        return mediaTypeRegistry.getContentType(filename);
     }
 
     private void validateFile(MultipartFile file) throws IOException {
@@ -282,17 +328,11 @@ public class MediaUploadService {
             throw new IOException("File name is null");
         }
 
-        String extension = getFileExtension(originalFilename).toLowerCase();
-        List<String> allowedImageTypes = Arrays.asList(allowedImageTypesStr.split(","));
-        List<String> allowedVideoTypes = Arrays.asList(allowedVideoTypesStr.split(","));
-        
-        boolean isImage = allowedImageTypes.contains(extension);
-        boolean isVideo = allowedVideoTypes.contains(extension);
+        boolean isImage = isImageFile(originalFilename);
+        boolean isVideo = isVideoFile(originalFilename);
 
         if (!isImage && !isVideo) {
-            throw new IOException("File type not allowed. Allowed types: " + 
-                String.join(", ", allowedImageTypes) + ", " + 
-                String.join(", ", allowedVideoTypes));
+            throw new IOException("File type not allowed. Allowed types: " + allowedTypesDescription());
         }
 
         // Check file size based on type
@@ -311,6 +351,8 @@ public class MediaUploadService {
                     (maxVideoSize / 1024 / 1024) + "MB");
             }
         }
+
+        mediaTypeRegistry.verifyContent(file);
     }
 
     private void validateImageFile(MultipartFile file) throws IOException {
@@ -329,11 +371,9 @@ public class MediaUploadService {
             throw new IOException("Image file name is null");
         }
 
-        List<String> allowedImageTypes = Arrays.asList(allowedImageTypesStr.split(","));
-        String extension = getFileExtension(originalFilename).toLowerCase();
-        if (!allowedImageTypes.contains(extension)) {
+        if (!isImageFile(originalFilename)) {
             throw new IOException("Image type not allowed. Allowed types: " + 
-                String.join(", ", allowedImageTypes));
+                mediaTypeRegistry.getAllowedTypes(MediaTypeRegistry.Category.IMAGE));
         }
     }
 
@@ -353,11 +393,9 @@ public class MediaUploadService {
             throw new IOException("Video file name is null");
         }
 
-        List<String> allowedVideoTypes = Arrays.asList(allowedVideoTypesStr.split(","));
-        String extension = getFileExtension(originalFilename).toLowerCase();
-        if (!allowedVideoTypes.contains(extension)) {
+        if (!isVideoFile(originalFilename)) {
             throw new IOException("Video type not allowed. Allowed types: " + 
-                String.join(", ", allowedVideoTypes));
+                mediaTypeRegistry.getAllowedTypes(MediaTypeRegistry.Category.VIDEO));
         }
     }
 
@@ -391,6 +429,11 @@ public class MediaUploadService {
         return timestamp + "_" + uuid + "." + extension;
     }
 
+    private String allowedTypesDescription() {
+        return mediaTypeRegistry.getAllowedTypes(MediaTypeRegistry.Category.IMAGE) + ", "
+                + mediaTypeRegistry.getAllowedTypes(MediaTypeRegistry.Category.VIDEO);
+    }
+
     private String getFileExtension(String filename) {
         int lastDotIndex = filename.lastIndexOf('.');
         if (lastDotIndex == -1) {
@@ -399,6 +442,91 @@ public class MediaUploadService {
         return filename.substring(lastDotIndex + 1);
     }
 
+    /**
+     * Store a single media file read from a stream. The type is checked against the file's
+     * leading bytes and the size limit is enforced while reading.
+     * @param in The file content (not closed by this method)
+     * @param originalFilename The client's filename, used for the type and extension
+     * @param category The category for organizing media
+     * @return Relative path to access the uploaded media
+     * @throws IOException if the file is rejected or cannot be stored
+     */
+    public String uploadMediaStream(InputStream in, String originalFilename, String category) throws IOException {
+        if (!isValidCategory(category)) {
+            throw new IOException("Invalid category: " + category);
+        }
+        FileMediaType mediaType = getMediaType(originalFilename);
+        if (mediaType == null) {
+            throw new IOException("File type not allowed. Allowed types: " + allowedTypesDescription());
+        }
+
+        // Check the leading bytes against the declared type before anything is written
+        BufferedInputStream buffered = new BufferedInputStream(in, MediaTypeRegistry.SNIFF_LENGTH * 2);
+        buffered.mark(MediaTypeRegistry.SNIFF_LENGTH);
+        byte[] head = buffered.readNBytes(MediaTypeRegistry.SNIFF_LENGTH);
+        buffered.reset();
+        if (head.length == 0) {
+            throw new IOException("File is empty: " + originalFilename);
+        }
+        if (!mediaTypeRegistry.matchesContent(mediaTypeRegistry.lookup(originalFilename), head, head.length)) {
+            throw new IOException("File content does not match its type: " + originalFilename);
+        }
+
+        long maxSize = getMaxFileSize(mediaType);
+        String label = mediaType == FileMediaType.IMAGE ? "Image" : "Video";
+
+        createUploadDirectory(category);
+        String relativePath = category + "/" + generateUniqueFilename(originalFilename);
+        contentStorageService.store(new SizeLimitedInputStream(buffered, maxSize, label), relativePath);
+        log.info("Media streamed successfully: {}", relativePath);
+
+        if (mediaType == FileMediaType.IMAGE) {
+            imageVariantService.scheduleVariants(relativePath);
+        }
+        return relativePath;
+    }
+
+    /**
+     * Fails the read as soon as more than the allowed number of bytes has been consumed,
+     * so oversized uploads are stopped without being written out in full.
+     */
+    private static class SizeLimitedInputStream extends FilterInputStream {
+        private final long maxSize;
+        private final String label;
+        private long count;
+
+        SizeLimitedInputStream(InputStream in, long maxSize, String label) {
+            super(in);
+            this.maxSize = maxSize;
+            this.label = label;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                checkLimit(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                checkLimit(n);
+            }
+            return n;
+        }
+
+        private void checkLimit(int n) throws IOException {
+            count += n;
+            if (count > maxSize) {
+                throw new IOException(label + " size exceeds maximum allowed size of " + (maxSize / 1024 / 1024) + "MB");
+            }
+        }
+    }
+
     /**
      * Upload multiple media files (images and/or videos)
      * @param files Array of multipart files to upload
@@ -411,14 +539,9 @@ public class MediaUploadService {
             throw new IOException("No files provided for upload");
         }
 
-        List<String> uploadedPaths = new ArrayList<>();
-        
-        for (MultipartFile file : files) {
-            if (file != null && !file.isEmpty()) {
-                String relativePath = uploadMedia(file, category);
-                uploadedPaths.add(relativePath);
-            }
-        }
+        List<String> uploadedPaths = uploadMediaBatch(files, category, null).stream()
+                .map(ParallelUploadService.UploadResult::getPath)
+                .toList();
         
         if (uploadedPaths.isEmpty()) {
             throw new IOException("No valid files were uploaded");
@@ -439,15 +562,9 @@ public class MediaUploadService {
             throw new IOException("No image files provided for upload");
         }
 
-        List<String> uploadedPaths = new ArrayList<>();
-        
-        for (MultipartFile file : files) {
-            if (file != null && !file.isEmpty()) {
-                validateImageFile(file);
-                String relativePath = uploadMedia(file, category);
-                uploadedPaths.add(relativePath);
-            }
-        }
+        List<String> uploadedPaths = uploadMediaBatch(files, category, FileMediaType.IMAGE).stream()
+                .map(ParallelUploadService.UploadResult::getPath)
+                .toList();
         
         if (uploadedPaths.isEmpty()) {
             throw new IOException("No valid image files were uploaded");
@@ -468,15 +585,9 @@ public class MediaUploadService {
             throw new IOException("No video files provided for upload");
         }
 
-        List<String> uploadedPaths = new ArrayList<>();
-        
-        for (MultipartFile file : files) {
-            if (file != null && !file.isEmpty()) {
-                validateVideoFile(file);
-                String relativePath = uploadMedia(file, category);
-                uploadedPaths.add(relativePath);
-            }
-        }
+        List<String> uploadedPaths = uploadMediaBatch(files, category, FileMediaType.VIDEO).stream()
+                .map(ParallelUploadService.UploadResult::getPath)
+                .toList();
         
         if (uploadedPaths.isEmpty()) {
             throw new IOException("No valid video files were uploaded");
@@ -485,6 +596,36 @@ public class MediaUploadService {
         return uploadedPaths;
     }
 
+    /**
+     * Upload a batch of files concurrently, all or nothing, with one result per stored file
+     * @param files The files to upload; null and empty entries are skipped
+     * @param category The category for organizing media
+     * @param mediaType IMAGE or VIDEO to require that type, or null to accept both
+     * @return per-file results (original name, stored path, size) in upload order
+     * @throws IOException if any file fails; files already stored for the batch are removed
+     */
+    public List<ParallelUploadService.UploadResult> uploadMediaBatch(MultipartFile[] files, String category,
+                                                                     FileMediaType mediaType) throws IOException {
+        List<ParallelUploadService.UploadTask> tasks = new ArrayList<>();
+        if (files != null) {
+            for (MultipartFile file : files) {
+                if (file != null && !file.isEmpty()) {
+                    tasks.add(ParallelUploadService.UploadTask.of(file, f -> uploadAs(f, category, mediaType), this::deleteMedia));
+                }
+            }
+        }
+        return tasks.isEmpty() ? List.of() : parallelUploadService.uploadAll(tasks);
+    }
+
+    private String uploadAs(MultipartFile file, String category, FileMediaType mediaType) throws IOException {
+        if (mediaType == FileMediaType.IMAGE) {
+            return uploadImage(file, category);
+        } else if (mediaType == FileMediaType.VIDEO) {
+            return uploadVideo(file, category);
+        }
+        return uploadMedia(file, category);
+    }
+
     /**
      * Delete multiple media files from local storage
      * @param mediaPaths List of relative paths of media files to delete
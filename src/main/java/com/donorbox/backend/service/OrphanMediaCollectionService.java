@@ -0,0 +1,298 @@
+package com.donorbox.backend.service;
+
+import com.donorbox.backend.repository.BlogRepository;
+import com.donorbox.backend.repository.CauseRepository;
+import com.donorbox.backend.repository.EventRepository;
+import com.donorbox.backend.repository.MediaObjectRepository;
+import com.donorbox.backend.repository.PersonalCauseSubmissionRepository;
+import com.donorbox.backend.util.DateTimeUtil;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Deletes uploads that nothing references any more: images replaced on a cause or blog, media of
+ * submissions that were never completed, files whose inline delete failed. A run marks every media
+ * path referenced by causes, events, blogs (including URLs embedded in blog content) and
+ * submissions, then sweeps the catalog and a parallel walk of the upload directories. Media younger
+ * than the grace period is kept, since uploads are referenced only after the form that carries them
+ * is saved. Deletions are throttled and capped per run, and media an entity claims while a run is
+ * deleting is kept.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrphanMediaCollectionService {
+
+    // Media URLs inside blog HTML: /api/{media,images,documents}/{category}/{file}, /uploads/... and /api/{category}/media/{file}
+    private static final Pattern EMBEDDED_MEDIA = Pattern.compile(
+            "/(?:api/(?:media|images|documents)|uploads)/([A-Za-z0-9._-]+)/([A-Za-z0-9._-]+)" +
+            "|/api/([A-Za-z0-9._-]+)/media/([A-Za-z0-9._-]+)");
+
+    private final CauseRepository causeRepository;
+    private final EventRepository eventRepository;
+    private final BlogRepository blogRepository;
+    private final PersonalCauseSubmissionRepository submissionRepository;
+    private final MediaObjectRepository mediaObjectRepository;
+    private final ContentStorageService contentStorageService;
+    private final ImageVariantService imageVariantService;
+    private final UploadPathResolver uploadPathResolver;
+
+    @Value("${app.media-gc.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.media-gc.grace-hours:48}")
+    private long graceHours;
+
+    // Only these categories are collected; uploads elsewhere may be linked from outside the database
+    @Value("${app.media-gc.categories:causes,events,blogs,personal-causes,public-causes,proof-documents}")
+    private String categoriesStr;
+
+    @Value("${app.media-gc.max-deletes-per-run:1000}")
+    private int maxDeletesPerRun;
+
+    @Value("${app.media-gc.delete-interval-ms:20}")
+    private long deleteIntervalMs;
+
+    @Scheduled(initialDelayString = "${app.media-gc.initial-delay-ms:600000}",
+               fixedDelayString = "${app.media-gc.interval-ms:21600000}")
+    public void scheduledCollect() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            collect(false);
+        } catch (IOException | RuntimeException e) {
+            log.error("Orphaned media collection failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Run a mark and sweep pass
+     * @param dryRun Only report what would be deleted
+     * @return counts and bytes reclaimed
+     * @throws IOException if the upload directory cannot be listed
+     */
+    public synchronized CollectionResult collect(boolean dryRun) throws IOException {
+        long start = System.currentTimeMillis();
+        Set<String> categories = Arrays.stream(categoriesStr.split(","))
+                .map(String::trim)
+                .filter(category -> !category.isEmpty())
+                .collect(Collectors.toSet());
+
+        LocalDateTime runStart = DateTimeUtil.getCurrentTimeForDatabase();
+        Set<String> referenced = mark();
+        Set<String> candidates = sweepCandidates(categories);
+
+        // Sorted so that capped runs make steady progress through the same order
+        List<String> orphans = new ArrayList<>();
+        for (String path : new TreeSet<>(candidates)) {
+            if (!referenced.contains(path)) {
+                orphans.add(path);
+            }
+        }
+
+        int deleted = 0;
+        int failed = 0;
+        int relinked = 0;
+        long bytesReclaimed = 0;
+        if (!dryRun) {
+            for (String path : orphans) {
+                if (deleted + failed >= maxDeletesPerRun) {
+                    break;
+                }
+                // The mark is a snapshot: skip media an entity claimed while the run was deleting
+                if (mediaObjectRepository.isOwnerAssignedSince(path, runStart)) {
+                    log.debug("Kept media {}, referenced after the mark", path);
+                    relinked++;
+                    continue;
+                }
+                try {
+                    long freed = contentStorageService.reclaim(path);
+                    imageVariantService.deleteVariants(path);
+                    if (freed >= 0) {
+                        deleted++;
+                        bytesReclaimed += freed;
+                        log.debug("Deleted orphaned media {} ({} bytes freed)", path, freed);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Could not delete orphaned media {}: {}", path, e.getMessage());
+                    failed++;
+                }
+                throttle();
+            }
+        }
+
+        long duration = System.currentTimeMillis() - start;
+        log.info("Orphaned media collection{}: {} referenced, {} candidates, {} orphaned, {} deleted, {} failed, {} relinked, {} bytes reclaimed in {} ms",
+                dryRun ? " (dry run)" : "", referenced.size(), candidates.size(), orphans.size(), deleted, failed, relinked,
+                bytesReclaimed, duration);
+        return new CollectionResult(referenced.size(), candidates.size(), orphans.size(), deleted, failed,
+                bytesReclaimed, duration, dryRun, List.copyOf(orphans.subList(0, Math.min(orphans.size(), 100))));
+    }
+
+    /**
+     * Mark: every logical path referenced by an entity
+     */
+    private Set<String> mark() {
+        Set<String> referenced = new HashSet<>();
+        Stream.of(causeRepository.findMediaReferences(),
+                        eventRepository.findMediaReferences(),
+                        blogRepository.findMediaReferences(),
+                        submissionRepository.findMediaReferences())
+                .flatMap(List::stream)
+                .map(OrphanMediaCollectionService::toLogicalPath)
+                .filter(Objects::nonNull)
+                .forEach(referenced::add);
+
+        for (String content : blogRepository.findAllContents()) {
+            if (content == null) {
+                continue;
+            }
+            Matcher matcher = EMBEDDED_MEDIA.matcher(content);
+            while (matcher.find()) {
+                referenced.add(matchedPath(matcher));
+            }
+        }
+        return referenced;
+    }
+
+    /**
+     * Sweep: logical paths older than the grace period, from the catalog and the upload directories
+     */
+    private Set<String> sweepCandidates(Set<String> categories) throws IOException {
+        Set<String> candidates = ConcurrentHashMap.newKeySet();
+        LocalDateTime cutoff = DateTimeUtil.getCurrentTimeForDatabase().minusHours(graceHours);
+        mediaObjectRepository.findPathsCreatedBefore(cutoff).stream()
+                .filter(path -> categories.contains(categoryOf(path)))
+                .forEach(candidates::add);
+
+        // One task per first-level shard, as for the media index
+        FileTime fileCutoff = FileTime.from(Instant.now().minus(graceHours, ChronoUnit.HOURS));
+        List<Path> directories = new ArrayList<>();
+        for (Path category : uploadPathResolver.categoryDirectories()) {
+            if (!categories.contains(category.getFileName().toString())) {
+                continue;
+            }
+            try (Stream<Path> children = Files.list(category)) {
+                children.forEach(directories::add);
+            }
+        }
+        try {
+            directories.parallelStream().forEach(path -> collectOldFiles(path, fileCutoff, candidates));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return candidates;
+    }
+
+    private void collectOldFiles(Path path, FileTime cutoff, Set<String> candidates) {
+        try {
+            if (UploadPathResolver.isFlatFile(path)) {
+                addIfOld(path, cutoff, candidates);
+                return;
+            }
+            if (!Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                return;
+            }
+            try (Stream<Path> files = Files.walk(path, 2)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    if (file.getNameCount() - path.getNameCount() == 2 && UploadPathResolver.isFlatFile(file)) {
+                        addIfOld(file, cutoff, candidates);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void addIfOld(Path file, FileTime cutoff, Set<String> candidates) throws IOException {
+        // The link's own time: when the logical path was (re)written, not when its blob was
+        if (Files.getLastModifiedTime(file, LinkOption.NOFOLLOW_LINKS).compareTo(cutoff) < 0) {
+            candidates.add(uploadPathResolver.toLogicalPath(file));
+        }
+    }
+
+    private void throttle() {
+        if (deleteIntervalMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(deleteIntervalMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Logical path (category/filename) of a stored media reference, which may also be a full URL
+     */
+    static String toLogicalPath(String reference) {
+        if (reference == null || reference.isBlank()) {
+            return null;
+        }
+        String value = reference.trim();
+        int query = value.indexOf('?');
+        if (query != -1) {
+            value = value.substring(0, query);
+        }
+        if (!value.contains("://") && !value.startsWith("/")) {
+            return value;
+        }
+        Matcher matcher = EMBEDDED_MEDIA.matcher(value);
+        return matcher.find() ? matchedPath(matcher) : null;
+    }
+
+    private static String matchedPath(Matcher matcher) {
+        return matcher.group(1) != null
+                ? matcher.group(1) + "/" + matcher.group(2)
+                : matcher.group(3) + "/" + matcher.group(4);
+    }
+
+    private static String categoryOf(String path) {
+        int slash = path.indexOf('/');
+        return slash > 0 ? path.substring(0, slash) : "";
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class CollectionResult {
+        private final int referenced;
+        private final int candidates;
+        private final int orphaned;
+        private final int deleted;
+        private final int failed;
+        private final long bytesReclaimed;
+        private final long durationMs;
+        private final boolean dryRun;
+        // First 100 orphans found
+        private final List<String> orphans;
+    }
+}
@@ -0,0 +1,112 @@
+package com.donorbox.backend.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * Runs the files of a multi-file upload concurrently on the bounded upload executor, so a
+ * batch takes about as long as its slowest file. A batch is all or nothing: if any file
+ * fails, the files that were stored are removed again before the error is reported.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ParallelUploadService {
+
+    private final ThreadPoolTaskExecutor uploadTaskExecutor;
+
+    /**
+     * Upload a batch of files concurrently
+     * @param tasks The files to upload, each with how to store it and how to remove it again
+     * @return one result per task, in task order
+     * @throws IOException the first failure, after every stored file of the batch was removed
+     */
+    public List<UploadResult> uploadAll(List<UploadTask> tasks) throws IOException {
+        if (tasks.size() == 1) {
+            UploadTask task = tasks.get(0);
+            return List.of(new UploadResult(task.getFile().getOriginalFilename(),
+                    task.getUploader().upload(task.getFile()), task.getFile().getSize()));
+        }
+
+        List<CompletableFuture<String>> futures = new ArrayList<>(tasks.size());
+        for (UploadTask task : tasks) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return task.getUploader().upload(task.getFile());
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, uploadTaskExecutor));
+        }
+
+        // Wait for every file, not just the first failure, so nothing is still being written during rollback
+        Throwable failure = null;
+        List<UploadResult> results = new ArrayList<>(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            UploadTask task = tasks.get(i);
+            try {
+                String path = futures.get(i).join();
+                results.add(new UploadResult(task.getFile().getOriginalFilename(), path, task.getFile().getSize()));
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    failure = e.getCause() != null ? e.getCause() : e;
+                }
+                results.add(null);
+            }
+        }
+
+        if (failure == null) {
+            return results;
+        }
+
+        int removed = 0;
+        for (int i = 0; i < tasks.size(); i++) {
+            if (results.get(i) != null) {
+                tasks.get(i).getRollback().accept(results.get(i).getPath());
+                removed++;
+            }
+        }
+        log.warn("Batch upload of {} files failed, removed {} stored files: {}", tasks.size(), removed, failure.getMessage());
+
+        if (failure instanceof IOException io) {
+            throw io;
+        }
+        if (failure instanceof RuntimeException re) {
+            throw re;
+        }
+        throw new IOException("Upload failed: " + failure.getMessage(), failure);
+    }
+
+    @FunctionalInterface
+    public interface FileUploader {
+        String upload(MultipartFile file) throws IOException;
+    }
+
+    @Getter
+    @AllArgsConstructor(staticName = "of")
+    public static class UploadTask {
+        private final MultipartFile file;
+        private final FileUploader uploader;
+        private final Consumer<String> rollback;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class UploadResult {
+        private final String originalFilename;
+        private final String path;
+        private final long size;
+    }
+}
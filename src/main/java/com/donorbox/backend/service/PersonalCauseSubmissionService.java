@@ -22,6 +22,7 @@ public class PersonalCauseSubmissionService {
     private final PersonalCauseSubmissionRepository submissionRepository;
     private final CauseRepository causeRepository;
     private final EmailService emailService;
+    private final MediaCatalogService mediaCatalogService;
 
     @Value("${admin.email}")
     private String adminEmail;
@@ -86,6 +87,9 @@ public PersonalCauseSubmissionResponse createSubmission(PersonalCauseSubmissionR
                 .status(PersonalCauseSubmission.SubmissionStatus.PENDING)
                 .build();
         PersonalCauseSubmission savedSubmission = submissionRepository.save(submission);
+        mediaCatalogService.assignOwner("submission", savedSubmission.getId(),
+                savedSubmission.getImageUrl(), savedSubmission.getVideoUrl(), savedSubmission.getImageUrls(),
+                savedSubmission.getVideoUrls(), savedSubmission.getProofDocumentUrl(), savedSubmission.getProofDocumentUrls());
 
         // Send email to submitter
         String subject = "Your Cause Submission is Under Review";
@@ -138,6 +142,9 @@ return PersonalCauseSubmissionResponse.fromEntity(savedSubmission);
                 .status(PersonalCauseSubmission.SubmissionStatus.PENDING)
                 .build();
         PersonalCauseSubmission savedSubmission = submissionRepository.save(submission);
+        mediaCatalogService.assignOwner("submission", savedSubmission.getId(),
+                savedSubmission.getImageUrl(), savedSubmission.getVideoUrl(), savedSubmission.getImageUrls(),
+                savedSubmission.getVideoUrls(), savedSubmission.getProofDocumentUrl(), savedSubmission.getProofDocumentUrls());
 
         // Send email to submitter
         String subject = "Your Cause Submission is Under Review";
@@ -197,6 +204,7 @@ return PersonalCauseSubmissionResponse.fromEntity(savedSubmission);
                 .shortDescription(actionRequest.getModifiedShortDescription() != null ? actionRequest.getModifiedShortDescription() : submission.getShortDescription())
                 .targetAmount(submission.getTargetAmount())
                 .imageUrl(submission.getImageUrl())
+                .imagePlaceholder(mediaCatalogService.placeholderOf(submission.getImageUrl()))
                 .videoUrl(submission.getVideoUrl())
                 .mediaType(mediaType)
                 .category(actionRequest.getModifiedCategory() != null ? actionRequest.getModifiedCategory() : submission.getCategory())
@@ -204,6 +212,7 @@ return PersonalCauseSubmissionResponse.fromEntity(savedSubmission);
                 .endDate(submission.getEndDate())
                 .build();
         Cause savedCause = causeRepository.save(cause);
+        mediaCatalogService.assignOwner("cause", savedCause.getId(), savedCause.getImageUrl(), savedCause.getVideoUrl());
 
         // Link Cause to Submission
         submission.setCauseId(savedCause.getId());
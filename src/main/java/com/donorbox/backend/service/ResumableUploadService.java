@@ -0,0 +1,274 @@
+package com.donorbox.backend.service;
+
+import com.donorbox.backend.entity.UploadSession;
+import com.donorbox.backend.repository.UploadSessionRepository;
+import com.donorbox.backend.util.DateTimeUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Resumable uploads for large media (tus-style): a session is created with the total length,
+ * chunks are appended at the current offset, and the upload is finalized into regular media
+ * storage once every byte has arrived. An interrupted chunk keeps the bytes that were received,
+ * so the client resumes from the reported offset instead of starting over.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ResumableUploadService {
+
+    private static final String RESUMABLE_DIR = ".resumable";
+    private static final String PART_SUFFIX = ".part";
+
+    // Upper bound per transferFrom call; the loop continues until the chunk is exhausted
+    private static final long TRANSFER_SIZE = 8 * 1024 * 1024;
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final MediaUploadService mediaUploadService;
+
+    @Value("${app.upload.dir:uploads}")
+    private String uploadDir;
+
+    @Value("${app.upload.resumable.expiry-hours:24}")
+    private long expiryHours;
+
+    /**
+     * Start a resumable upload
+     * @param category The category the finished media will be stored under
+     * @param filename The client's filename, used for the media type and extension
+     * @param totalSize The full size of the file in bytes
+     * @return the new session, with nothing received yet
+     * @throws IllegalArgumentException if the category, type or size is not allowed
+     * @throws IOException if the part file cannot be created
+     */
+    public UploadSession createSession(String category, String filename, long totalSize) throws IOException {
+        if (!mediaUploadService.isValidCategory(category)) {
+            throw new IllegalArgumentException("Invalid category: " + category);
+        }
+        MediaUploadService.FileMediaType mediaType = mediaUploadService.getMediaType(filename);
+        if (mediaType == null) {
+            throw new IllegalArgumentException("File type not allowed: " + filename);
+        }
+        long maxSize = mediaUploadService.getMaxFileSize(mediaType);
+        if (totalSize <= 0 || totalSize > maxSize) {
+            throw new IllegalArgumentException("Upload length must be between 1 byte and " + (maxSize / 1024 / 1024) + "MB");
+        }
+
+        String id = UUID.randomUUID().toString();
+        Path part = partFile(id);
+        Files.createDirectories(part.getParent());
+        Files.createFile(part);
+        try {
+            UploadSession session = uploadSessionRepository.save(UploadSession.builder()
+                    .id(id)
+                    .category(category)
+                    .originalFilename(filename)
+                    .totalSize(totalSize)
+                    .build());
+            log.info("Resumable upload {} created for {} ({} bytes)", id, filename, totalSize);
+            return session;
+        } catch (RuntimeException e) {
+            Files.deleteIfExists(part);
+            throw e;
+        }
+    }
+
+    /**
+     * Find an upload session
+     * @param id The session id
+     * @return the session, or empty if it does not exist or has expired
+     */
+    public Optional<UploadSession> getSession(String id) {
+        return uploadSessionRepository.findById(id);
+    }
+
+    /**
+     * Append a chunk at the given offset. Bytes received before a dropped connection are kept
+     * and counted, so the next chunk can start where this one stopped.
+     * @param session The upload session
+     * @param offset The offset the client believes it is writing at
+     * @param in The chunk content
+     * @return the new offset
+     * @throws IllegalStateException if the offset does not match or another chunk is being written
+     * @throws IllegalArgumentException if the chunk runs past the declared length
+     * @throws IOException if the chunk cannot be read or written
+     */
+    public long appendChunk(UploadSession session, long offset, InputStream in) throws IOException {
+        long totalSize = session.getTotalSize();
+        try (FileChannel channel = FileChannel.open(partFile(session.getId()), StandardOpenOption.WRITE)) {
+            lock(channel, session);
+            long position = channel.size();
+            if (offset != position) {
+                throw new IllegalStateException("Upload offset mismatch: expected " + position + " but got " + offset);
+            }
+
+            ReadableByteChannel source = Channels.newChannel(in);
+            try {
+                while (position < totalSize) {
+                    long transferred = channel.transferFrom(source, position, Math.min(totalSize - position, TRANSFER_SIZE));
+                    if (transferred <= 0) {
+                        break;
+                    }
+                    position += transferred;
+                }
+            } finally {
+                recordProgress(session, position);
+            }
+
+            if (position == totalSize && in.read() != -1) {
+                throw new IllegalArgumentException("Chunk extends past the declared upload length of " + totalSize + " bytes");
+            }
+            return position;
+        }
+    }
+
+    /**
+     * Finish a complete upload: store it as regular media and discard the session
+     * @param session The upload session
+     * @return Relative path to access the uploaded media
+     * @throws IllegalStateException if bytes are still missing or a chunk is being written
+     * @throws IOException if the media is rejected or cannot be stored
+     */
+    public String completeUpload(UploadSession session) throws IOException {
+        Path part = partFile(session.getId());
+        String relativePath;
+        try (FileChannel channel = FileChannel.open(part, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            lock(channel, session);
+            long received = channel.size();
+            if (received != session.getTotalSize()) {
+                throw new IllegalStateException("Upload incomplete: " + received + " of " + session.getTotalSize() + " bytes received");
+            }
+            try (InputStream in = Channels.newInputStream(channel.position(0))) {
+                relativePath = mediaUploadService.uploadMediaStream(in, session.getOriginalFilename(), session.getCategory());
+            }
+        }
+
+        discard(session);
+        log.info("Resumable upload {} completed: {}", session.getId(), relativePath);
+        return relativePath;
+    }
+
+    /**
+     * Abandon an upload and delete the bytes received so far
+     * @param session The upload session
+     * @throws IllegalStateException if a chunk is being written
+     * @throws IOException if the part file cannot be deleted
+     */
+    public void abortUpload(UploadSession session) throws IOException {
+        discard(session);
+        log.info("Resumable upload {} aborted", session.getId());
+    }
+
+    /**
+     * Remove uploads that have received nothing within the expiry window, and part files
+     * whose session no longer exists (e.g. left by a crash between file and row creation)
+     */
+    @Scheduled(fixedDelayString = "${app.upload.resumable.cleanup-interval-ms:3600000}")
+    public void cleanupExpiredUploads() {
+        LocalDateTime cutoff = DateTimeUtil.getCurrentTimeForDatabase().minusHours(expiryHours);
+        int removed = 0;
+
+        List<UploadSession> expired = uploadSessionRepository.findByUpdatedAtBefore(cutoff);
+        for (UploadSession session : expired) {
+            try {
+                discard(session);
+                removed++;
+            } catch (IllegalStateException e) {
+                log.debug("Skipping expired upload {}: a chunk is being written", session.getId());
+            } catch (IOException e) {
+                log.warn("Could not remove expired upload {}: {}", session.getId(), e.getMessage());
+            }
+        }
+
+        Path dir = resumableDir();
+        if (Files.isDirectory(dir)) {
+            FileTime fileCutoff = FileTime.from(Instant.now().minus(expiryHours, ChronoUnit.HOURS));
+            try (DirectoryStream<Path> parts = Files.newDirectoryStream(dir, "*" + PART_SUFFIX)) {
+                for (Path part : parts) {
+                    String name = part.getFileName().toString();
+                    String id = name.substring(0, name.length() - PART_SUFFIX.length());
+                    if (Files.getLastModifiedTime(part).compareTo(fileCutoff) < 0 && !uploadSessionRepository.existsById(id)) {
+                        Files.deleteIfExists(part);
+                        removed++;
+                    }
+                }
+            } catch (IOException e) {
+                log.warn("Could not scan {} for orphaned uploads: {}", dir, e.getMessage());
+            }
+        }
+
+        if (removed > 0) {
+            log.info("Removed {} expired or orphaned resumable uploads", removed);
+        }
+    }
+
+    /**
+     * Take the part file's lock so only one chunk (or the finalize step) touches it at a time,
+     * across request threads and across instances sharing the upload directory
+     */
+    private void lock(FileChannel channel, UploadSession session) throws IOException {
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            throw new IllegalStateException("Upload " + session.getId() + " is already receiving data");
+        }
+        // Released when the channel is closed
+    }
+
+    private void recordProgress(UploadSession session, long received) {
+        session.setReceivedSize(received);
+        uploadSessionRepository.updateProgress(session.getId(), received, DateTimeUtil.getCurrentTimeForDatabase());
+    }
+
+    /**
+     * Delete the session and its part file under the part file's lock, so a chunk still being
+     * written is never left recording progress against a removed session
+     * @throws IllegalStateException if a chunk is being written
+     */
+    private void discard(UploadSession session) throws IOException {
+        Path part = partFile(session.getId());
+        try (FileChannel channel = FileChannel.open(part, StandardOpenOption.WRITE)) {
+            lock(channel, session);
+            uploadSessionRepository.deleteById(session.getId());
+            Files.delete(part);
+        } catch (NoSuchFileException e) {
+            uploadSessionRepository.deleteById(session.getId());
+        }
+    }
+
+    private Path partFile(String id) {
+        return resumableDir().resolve(id + PART_SUFFIX);
+    }
+
+    private Path resumableDir() {
+        return Paths.get(uploadDir).toAbsolutePath().normalize().resolve(RESUMABLE_DIR);
+    }
+}
@@ -0,0 +1,206 @@
+package com.donorbox.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Blob store in an S3-compatible bucket (AWS S3, MinIO, Cloudflare R2, ...), so every
+ * application node sees the same uploads. Set app.storage.type=s3 and the app.storage.s3.*
+ * properties; a custom endpoint with path-style access works with local MinIO-style servers.
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "s3")
+@Slf4j
+public class S3BlobStore implements BlobStore {
+
+    @Value("${app.storage.s3.bucket}")
+    private String bucket;
+
+    @Value("${app.storage.s3.region:us-east-1}")
+    private String region;
+
+    @Value("${app.storage.s3.endpoint:}")
+    private String endpoint;
+
+    @Value("${app.storage.s3.path-style-access:false}")
+    private boolean pathStyleAccess;
+
+    @Value("${app.storage.s3.access-key:}")
+    private String accessKey;
+
+    @Value("${app.storage.s3.secret-key:}")
+    private String secretKey;
+
+    @Value("${app.storage.s3.key-prefix:}")
+    private String keyPrefix;
+
+    private S3Client client;
+    private S3Presigner presigner;
+
+    @PostConstruct
+    void init() {
+        AwsCredentialsProvider credentials = accessKey.isBlank()
+                ? DefaultCredentialsProvider.create()
+                : StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey));
+        S3Configuration serviceConfiguration = S3Configuration.builder()
+                .pathStyleAccessEnabled(pathStyleAccess)
+                .build();
+
+        var clientBuilder = S3Client.builder()
+                .httpClientBuilder(UrlConnectionHttpClient.builder())
+                .region(Region.of(region))
+                .credentialsProvider(credentials)
+                .serviceConfiguration(serviceConfiguration);
+        var presignerBuilder = S3Presigner.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentials)
+                .serviceConfiguration(serviceConfiguration);
+        if (!endpoint.isBlank()) {
+            clientBuilder.endpointOverride(URI.create(endpoint));
+            presignerBuilder.endpointOverride(URI.create(endpoint));
+        }
+        client = clientBuilder.build();
+        presigner = presignerBuilder.build();
+        log.info("S3 blob store using bucket {} at {}", bucket, endpoint.isBlank() ? "AWS " + region : endpoint);
+    }
+
+    @PreDestroy
+    void close() {
+        client.close();
+        presigner.close();
+    }
+
+    @Override
+    public void put(String key, Path source, String contentType) throws IOException {
+        try {
+            client.putObject(putRequest(key, contentType), RequestBody.fromFile(source));
+        } catch (SdkException e) {
+            throw new IOException("Could not upload " + key + " to S3: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void put(String key, InputStream in, long size, String contentType) throws IOException {
+        try {
+            client.putObject(putRequest(key, contentType), RequestBody.fromInputStream(in, size));
+        } catch (SdkException e) {
+            throw new IOException("Could not upload " + key + " to S3: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        return open(GetObjectRequest.builder().bucket(bucket).key(objectKey(key)).build(), key);
+    }
+
+    @Override
+    public InputStream get(String key, long start, long end) throws IOException {
+        return open(GetObjectRequest.builder()
+                .bucket(bucket)
+                .key(objectKey(key))
+                .range("bytes=" + start + "-" + end)
+                .build(), key);
+    }
+
+    @Override
+    public Optional<BlobInfo> stat(String key) throws IOException {
+        try {
+            HeadObjectResponse head = client.headObject(builder -> builder.bucket(bucket).key(objectKey(key)));
+            return Optional.of(new BlobInfo(head.contentLength(), head.lastModified()));
+        } catch (NoSuchKeyException e) {
+            return Optional.empty();
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return Optional.empty();
+            }
+            throw new IOException("Could not read metadata of " + key + " from S3: " + e.getMessage(), e);
+        } catch (SdkException e) {
+            throw new IOException("Could not read metadata of " + key + " from S3: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        boolean existed = stat(key).isPresent();
+        try {
+            client.deleteObject(builder -> builder.bucket(bucket).key(objectKey(key)));
+        } catch (SdkException e) {
+            throw new IOException("Could not delete " + key + " from S3: " + e.getMessage(), e);
+        }
+        return existed;
+    }
+
+    @Override
+    public Optional<URI> presignedGetUrl(String key, Duration ttl, String contentType, String contentDisposition) {
+        try {
+            GetObjectRequest request = GetObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(objectKey(key))
+                    .responseContentType(contentType)
+                    .responseContentDisposition(contentDisposition)
+                    .build();
+            return Optional.of(presigner.presignGetObject(builder -> builder
+                    .signatureDuration(ttl)
+                    .getObjectRequest(request)).url().toURI());
+        } catch (SdkException | URISyntaxException e) {
+            log.warn("Could not presign {}: {}", key, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        return Optional.empty();
+    }
+
+    private InputStream open(GetObjectRequest request, String key) throws IOException {
+        try {
+            return client.getObject(request);
+        } catch (NoSuchKeyException e) {
+            throw new NoSuchFileException(key);
+        } catch (SdkException e) {
+            throw new IOException("Could not read " + key + " from S3: " + e.getMessage(), e);
+        }
+    }
+
+    private PutObjectRequest putRequest(String key, String contentType) {
+        return PutObjectRequest.builder()
+                .bucket(bucket)
+                .key(objectKey(key))
+                .contentType(contentType)
+                .build();
+    }
+
+    private String objectKey(String key) {
+        return keyPrefix.isBlank() ? key : keyPrefix.replaceAll("/+$", "") + "/" + key;
+    }
+}
@@ -0,0 +1,167 @@
+package com.donorbox.backend.service;
+
+import com.donorbox.backend.entity.PersonalCauseSubmission;
+import com.donorbox.backend.repository.PersonalCauseSubmissionRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams every image, video and proof document of a personal cause submission as one ZIP, so
+ * reviewers download a submission in one request. Entries are copied through a fixed buffer as
+ * they are read and nothing is staged on disk. Media that is already compressed is STORED: its
+ * CRC is computed in a first read, since a STORED entry must declare it before its data.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SubmissionArchiveService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // category/filename only; segments may not start with a dot, so nothing escapes the upload directory
+    private static final Pattern SAFE_PATH = Pattern.compile("[A-Za-z0-9_-][A-Za-z0-9._-]*/[A-Za-z0-9_-][A-Za-z0-9._-]*");
+
+    private final PersonalCauseSubmissionRepository submissionRepository;
+    private final ContentStorageService contentStorageService;
+    private final MediaTypeRegistry mediaTypeRegistry;
+
+    /**
+     * List the files of a submission and the names they get in the archive
+     * @param submissionId The submission id
+     * @return entries under images/, videos/ and documents/, without duplicates
+     * @throws IllegalArgumentException if the submission does not exist
+     */
+    @Transactional(readOnly = true)
+    public List<ArchiveEntry> listEntries(Long submissionId) {
+        PersonalCauseSubmission submission = submissionRepository.findById(submissionId)
+                .orElseThrow(() -> new IllegalArgumentException("Submission not found with id: " + submissionId));
+
+        List<ArchiveEntry> entries = new ArrayList<>();
+        Set<String> seenPaths = new HashSet<>();
+        Set<String> names = new HashSet<>();
+        addEntries(entries, seenPaths, names, "images", submission.getImageUrl(), submission.getImageUrls());
+        addEntries(entries, seenPaths, names, "videos", submission.getVideoUrl(), submission.getVideoUrls());
+        addEntries(entries, seenPaths, names, "documents", submission.getProofDocumentUrl(), submission.getProofDocumentUrls());
+        return entries;
+    }
+
+    /**
+     * Write the archive. Files that cannot be found are listed in MISSING.txt instead of failing
+     * the download, since the response has already started.
+     * @param entries Entries from {@link #listEntries(Long)}
+     * @param out The response stream (not closed by this method)
+     * @throws IOException if the client goes away or stored content cannot be read
+     */
+    public void writeArchive(List<ArchiveEntry> entries, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        List<String> missing = new ArrayList<>();
+        for (ArchiveEntry entry : entries) {
+            try {
+                writeEntry(zip, entry, buffer);
+            } catch (NoSuchFileException e) {
+                log.warn("Submission file {} not found, leaving it out of the archive", entry.getPath());
+                missing.add(entry.getPath());
+            }
+        }
+        if (!missing.isEmpty()) {
+            zip.putNextEntry(new ZipEntry("MISSING.txt"));
+            zip.write(String.join("\n", missing).concat("\n").getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        // Writes the central directory without closing the response stream
+        zip.finish();
+        zip.flush();
+    }
+
+    private void writeEntry(ZipOutputStream zip, ArchiveEntry entry, byte[] buffer) throws IOException {
+        ZipEntry zipEntry = new ZipEntry(entry.getName());
+        if (isCompressed(entry.getPath())) {
+            CRC32 crc = new CRC32();
+            long size = 0;
+            try (InputStream in = contentStorageService.open(entry.getPath())) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    crc.update(buffer, 0, read);
+                    size += read;
+                }
+            }
+            zipEntry.setMethod(ZipEntry.STORED);
+            zipEntry.setSize(size);
+            zipEntry.setCompressedSize(size);
+            zipEntry.setCrc(crc.getValue());
+        } else {
+            zipEntry.setMethod(ZipEntry.DEFLATED);
+        }
+
+        try (InputStream in = contentStorageService.open(entry.getPath())) {
+            zip.putNextEntry(zipEntry);
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                zip.write(buffer, 0, read);
+            }
+            zip.closeEntry();
+        }
+    }
+
+    private boolean isCompressed(String path) {
+        return mediaTypeRegistry.lookup(path) != null && !mediaTypeRegistry.isCompressible(path);
+    }
+
+    private void addEntries(List<ArchiveEntry> entries, Set<String> seenPaths, Set<String> names,
+                            String folder, String single, List<String> list) {
+        Set<String> references = new LinkedHashSet<>();
+        if (list != null) {
+            references.addAll(list);
+        }
+        if (single != null) {
+            references.add(single);
+        }
+        for (String reference : references) {
+            String path = OrphanMediaCollectionService.toLogicalPath(reference);
+            if (path == null || !SAFE_PATH.matcher(path).matches() || !seenPaths.add(path)) {
+                continue;
+            }
+            entries.add(new ArchiveEntry(path, uniqueName(names, folder, path.substring(path.indexOf('/') + 1))));
+        }
+    }
+
+    private static String uniqueName(Set<String> names, String folder, String filename) {
+        String name = folder + "/" + filename;
+        int dot = filename.lastIndexOf('.');
+        String base = dot > 0 ? filename.substring(0, dot) : filename;
+        String extension = dot > 0 ? filename.substring(dot) : "";
+        for (int i = 2; !names.add(name); i++) {
+            name = folder + "/" + base + "-" + i + extension;
+        }
+        return name;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class ArchiveEntry {
+        // Logical path of the stored file
+        private final String path;
+        // Name inside the archive
+        private final String name;
+    }
+}
@@ -0,0 +1,215 @@
+package com.donorbox.backend.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admission control for uploads. Tracks the number and declared size of uploads in flight per
+ * category and per client IP, and checks the free space of the upload volume, so an upload that
+ * would exceed a limit is turned away (429, or 507 when the disk is short) before its body is read.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UploadAdmissionService {
+
+    private final UploadPathResolver uploadPathResolver;
+
+    @Value("${app.upload.admission.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.upload.admission.max-concurrent-per-ip:4}")
+    private int maxConcurrentPerIp;
+
+    @Value("${app.upload.admission.max-bytes-per-ip:268435456}")
+    private long maxBytesPerIp;
+
+    @Value("${app.upload.admission.max-concurrent-per-category:16}")
+    private int maxConcurrentPerCategory;
+
+    @Value("${app.upload.admission.max-bytes-per-category:1073741824}")
+    private long maxBytesPerCategory;
+
+    @Value("${app.upload.admission.min-free-bytes:1073741824}")
+    private long minFreeBytes;
+
+    // Size assumed for requests without a Content-Length (chunked transfer)
+    @Value("${app.upload.admission.unknown-length-bytes:104857600}")
+    private long unknownLengthBytes;
+
+    // In-flight uploads per key; guarded by this
+    private final Map<String, Usage> byIp = new HashMap<>();
+    private final Map<String, Usage> byCategory = new HashMap<>();
+    private int totalCount;
+    private long totalBytes;
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejectedBusy = new LongAdder();
+    private final LongAdder rejectedNoSpace = new LongAdder();
+
+    /**
+     * Admit an upload or turn it away
+     * @param category Category the upload is stored under
+     * @param clientIp Address of the uploading client
+     * @param contentLength Declared request size, or -1 if unknown
+     * @return the decision; an admitted upload must be closed when it has finished
+     */
+    public Admission admit(String category, String clientIp, long contentLength) {
+        if (!enabled) {
+            return Admission.NOT_TRACKED;
+        }
+        long bytes = contentLength >= 0 ? contentLength : unknownLengthBytes;
+        long usableSpace = usableSpace();
+
+        synchronized (this) {
+            Usage ip = byIp.getOrDefault(clientIp, Usage.NONE);
+            if (ip.count >= maxConcurrentPerIp || ip.bytes + bytes > maxBytesPerIp) {
+                return reject(HttpStatus.TOO_MANY_REQUESTS, "Too many uploads in progress from this client", category, clientIp);
+            }
+            Usage cat = byCategory.getOrDefault(category, Usage.NONE);
+            if (cat.count >= maxConcurrentPerCategory || cat.bytes + bytes > maxBytesPerCategory) {
+                return reject(HttpStatus.TOO_MANY_REQUESTS, "Too many uploads in progress for this category", category, clientIp);
+            }
+            // Bytes of uploads still in flight are not yet taken from the volume: reserve them
+            if (usableSpace - totalBytes - bytes < minFreeBytes) {
+                return reject(HttpStatus.INSUFFICIENT_STORAGE, "Not enough storage space for this upload", category, clientIp);
+            }
+            byIp.merge(clientIp, new Usage(1, bytes), Usage::plus);
+            byCategory.merge(category, new Usage(1, bytes), Usage::plus);
+            totalCount++;
+            totalBytes += bytes;
+        }
+        admitted.increment();
+        return new Admission(this, category, clientIp, bytes);
+    }
+
+    /**
+     * In-flight uploads and rejections since startup
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("admitted", admitted.sum());
+        stats.put("rejectedBusy", rejectedBusy.sum());
+        stats.put("rejectedNoSpace", rejectedNoSpace.sum());
+        synchronized (this) {
+            stats.put("inFlightUploads", totalCount);
+            stats.put("inFlightBytes", totalBytes);
+            Map<String, Object> categories = new LinkedHashMap<>();
+            byCategory.forEach((category, usage) -> categories.put(category, Map.of("uploads", usage.count, "bytes", usage.bytes)));
+            stats.put("categories", categories);
+            stats.put("clients", byIp.size());
+        }
+        stats.put("usableBytes", usableSpace());
+        stats.put("minFreeBytes", minFreeBytes);
+        return stats;
+    }
+
+    private Admission reject(HttpStatus status, String reason, String category, String clientIp) {
+        if (status == HttpStatus.INSUFFICIENT_STORAGE) {
+            rejectedNoSpace.increment();
+        } else {
+            rejectedBusy.increment();
+        }
+        log.warn("Upload rejected with {} for category {} from {}: {}", status.value(), category, clientIp, reason);
+        return new Admission(status, reason);
+    }
+
+    private synchronized void release(String category, String clientIp, long bytes) {
+        byIp.computeIfPresent(clientIp, (key, usage) -> usage.minus(bytes));
+        byCategory.computeIfPresent(category, (key, usage) -> usage.minus(bytes));
+        totalCount--;
+        totalBytes -= bytes;
+    }
+
+    private long usableSpace() {
+        try {
+            Path root = uploadPathResolver.root();
+            Files.createDirectories(root);
+            return Files.getFileStore(root).getUsableSpace();
+        } catch (IOException e) {
+            log.warn("Could not read free space of the upload volume: {}", e.getMessage());
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Uploads in flight for one key. Immutable, so entries are replaced rather than changed.
+     */
+    @AllArgsConstructor
+    private static class Usage {
+        static final Usage NONE = new Usage(0, 0);
+
+        private final int count;
+        private final long bytes;
+
+        Usage plus(Usage other) {
+            return new Usage(count + other.count, bytes + other.bytes);
+        }
+
+        // Null once nothing is left, which removes the entry from its map
+        Usage minus(long released) {
+            return count <= 1 ? null : new Usage(count - 1, bytes - released);
+        }
+    }
+
+    /**
+     * Outcome of an admission check. Closing an admitted upload releases its share of the limits.
+     */
+    public static class Admission implements AutoCloseable {
+        static final Admission NOT_TRACKED = new Admission(null, null);
+
+        @Getter
+        private final HttpStatus rejectedWith;
+        @Getter
+        private final String reason;
+        private final UploadAdmissionService owner;
+        private final String category;
+        private final String clientIp;
+        private final long bytes;
+        private boolean closed;
+
+        private Admission(HttpStatus rejectedWith, String reason) {
+            this.rejectedWith = rejectedWith;
+            this.reason = reason;
+            this.owner = null;
+            this.category = null;
+            this.clientIp = null;
+            this.bytes = 0;
+        }
+
+        private Admission(UploadAdmissionService owner, String category, String clientIp, long bytes) {
+            this.rejectedWith = null;
+            this.reason = null;
+            this.owner = owner;
+            this.category = category;
+            this.clientIp = clientIp;
+            this.bytes = bytes;
+        }
+
+        public boolean isAdmitted() {
+            return rejectedWith == null;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (owner != null && !closed) {
+                closed = true;
+                owner.release(category, clientIp, bytes);
+            }
+        }
+    }
+}
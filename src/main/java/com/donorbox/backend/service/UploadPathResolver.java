@@ -0,0 +1,189 @@
+package com.donorbox.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Maps logical paths (category/filename, as stored on causes, events, blogs and submissions) to
+ * files on disk. Files are sharded into two levels of hash-prefix directories,
+ * {category}/ab/cd/{filename}, so no directory grows past a few hundred entries. Logical paths
+ * and URLs do not change. Files from the earlier flat layout are still found until
+ * {@link UploadShardMigrationService} has moved them.
+ */
+@Component
+@Slf4j
+public class UploadPathResolver {
+
+    // Directories under the upload root that are not categories of logical paths
+    public static final Set<String> INTERNAL_DIRS = Set.of("blobs", "variants", ".staging", ".resumable");
+    public static final String VARIANTS_DIR = "variants";
+
+    @Value("${app.upload.dir:uploads}")
+    private String uploadDir;
+
+    @Value("${app.upload.sharding.enabled:true}")
+    private boolean shardingEnabled;
+
+    // True while flat-layout files may remain, so lookups also try the flat location
+    private volatile boolean legacyFiles = true;
+
+    @PostConstruct
+    void init() {
+        legacyFiles = !shardingEnabled || hasFlatFiles();
+        if (shardingEnabled && legacyFiles) {
+            log.info("Upload directory has files in the flat layout; run the shard migration to move them");
+        }
+    }
+
+    /**
+     * The upload root directory
+     */
+    public Path root() {
+        return Paths.get(uploadDir).toAbsolutePath().normalize();
+    }
+
+    /**
+     * File to read for a logical path: the sharded location, or the flat one for files not yet migrated
+     * @param relativePath The logical path (category/filename)
+     */
+    public Path resolve(String relativePath) {
+        Path sharded = shardedPath(relativePath);
+        if (legacyFiles && !Files.exists(sharded, LinkOption.NOFOLLOW_LINKS)) {
+            Path flat = flatPath(relativePath);
+            if (Files.exists(flat, LinkOption.NOFOLLOW_LINKS)) {
+                return flat;
+            }
+        }
+        return sharded;
+    }
+
+    /**
+     * File a logical path is written to
+     * @param relativePath The logical path (category/filename)
+     */
+    public Path shardedPath(String relativePath) {
+        Path flat = flatPath(relativePath);
+        return shardingEnabled ? shard(flat.getParent(), flat.getFileName().toString()) : flat;
+    }
+
+    /**
+     * Location of a logical path in the flat layout
+     * @param relativePath The logical path (category/filename)
+     */
+    public Path flatPath(String relativePath) {
+        return root().resolve(relativePath).normalize();
+    }
+
+    /**
+     * Location of a file within a directory, under its hash-prefix shard (dir/ab/cd/filename)
+     */
+    public Path shard(Path dir, String filename) {
+        if (!shardingEnabled) {
+            return dir.resolve(filename);
+        }
+        String hash = DigestUtils.md5DigestAsHex(filename.getBytes(StandardCharsets.UTF_8));
+        return dir.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(filename);
+    }
+
+    /**
+     * Logical path (category/filename) of a file under the upload root, in either layout
+     */
+    public String toLogicalPath(Path file) {
+        Path relative = root().relativize(file.toAbsolutePath().normalize());
+        int count = relative.getNameCount();
+        if (count >= 4) {
+            String filename = relative.getFileName().toString();
+            Path dir = count == 4 ? relative.getName(0) : relative.subpath(0, count - 3);
+            if (shard(dir, filename).equals(relative)) {
+                relative = dir.resolve(filename);
+            }
+        }
+        return relative.toString().replace('\\', '/');
+    }
+
+    public boolean isShardingEnabled() {
+        return shardingEnabled;
+    }
+
+    /**
+     * Whether files of the flat layout may still exist
+     */
+    public boolean hasLegacyFiles() {
+        return legacyFiles;
+    }
+
+    /**
+     * Called by the migration once no flat-layout file is left
+     */
+    void markMigrated() {
+        if (shardingEnabled) {
+            legacyFiles = false;
+        }
+    }
+
+    /**
+     * Category directories of logical paths
+     */
+    public List<Path> categoryDirectories() throws IOException {
+        return subdirectories(root());
+    }
+
+    /**
+     * Category directories of generated image variants
+     */
+    public List<Path> variantDirectories() throws IOException {
+        return subdirectories(root().resolve(VARIANTS_DIR));
+    }
+
+    private List<Path> subdirectories(Path parent) throws IOException {
+        List<Path> directories = new ArrayList<>();
+        if (!Files.isDirectory(parent)) {
+            return directories;
+        }
+        try (Stream<Path> children = Files.list(parent)) {
+            children.filter(dir -> Files.isDirectory(dir, LinkOption.NOFOLLOW_LINKS))
+                    .filter(dir -> !INTERNAL_DIRS.contains(dir.getFileName().toString()))
+                    .forEach(directories::add);
+        }
+        return directories;
+    }
+
+    private boolean hasFlatFiles() {
+        try {
+            List<Path> directories = new ArrayList<>(categoryDirectories());
+            directories.addAll(variantDirectories());
+            for (Path dir : directories) {
+                try (Stream<Path> children = Files.list(dir)) {
+                    if (children.anyMatch(UploadPathResolver::isFlatFile)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        } catch (IOException e) {
+            log.warn("Could not scan upload directory for flat-layout files: {}", e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * A file sitting directly in a category directory rather than in a shard
+     */
+    static boolean isFlatFile(Path path) {
+        return !Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS) && !path.getFileName().toString().startsWith(".");
+    }
+}
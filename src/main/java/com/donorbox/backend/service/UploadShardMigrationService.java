@@ -0,0 +1,124 @@
+package com.donorbox.backend.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Moves files of the flat upload layout ({category}/{filename}) into hash-prefix shards while the
+ * application keeps serving. Each file appears at its sharded location before it leaves the flat
+ * one, and the resolver checks both until the migration is complete, so no request sees a gap.
+ * Safe to run repeatedly and in batches.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UploadShardMigrationService {
+
+    private final UploadPathResolver uploadPathResolver;
+    private final HotMediaCache hotMediaCache;
+
+    /**
+     * Move up to {@code limit} flat-layout files into their shards
+     * @param limit Maximum number of files to move in this run
+     * @return how many files were moved, failed and are left
+     * @throws IOException if the upload directory cannot be listed
+     */
+    public synchronized MigrationResult migrate(int limit) throws IOException {
+        if (!uploadPathResolver.isShardingEnabled()) {
+            throw new IllegalStateException("Sharding is disabled (app.upload.sharding.enabled=false)");
+        }
+        int moved = 0;
+        int failed = 0;
+        for (Path dir : migratableDirectories()) {
+            if (moved + failed >= limit) {
+                break;
+            }
+            List<Path> files;
+            try (Stream<Path> children = Files.list(dir)) {
+                files = children.filter(UploadPathResolver::isFlatFile)
+                        .limit(limit - moved - failed)
+                        .toList();
+            }
+            for (Path file : files) {
+                try {
+                    moveToShard(file, uploadPathResolver.shard(dir, file.getFileName().toString()));
+                    moved++;
+                } catch (IOException e) {
+                    log.warn("Could not move {} into its shard: {}", file, e.getMessage());
+                    failed++;
+                }
+            }
+        }
+
+        long remaining = countFlatFiles();
+        if (remaining == 0) {
+            uploadPathResolver.markMigrated();
+        }
+        log.info("Shard migration moved {} files, {} failed, {} left in the flat layout", moved, failed, remaining);
+        return new MigrationResult(moved, failed, remaining);
+    }
+
+    private void moveToShard(Path file, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        if (Files.isSymbolicLink(file)) {
+            // A relative link has to be re-pointed from its new, deeper directory
+            Path blob = file.getParent().resolve(Files.readSymbolicLink(file)).normalize();
+            boolean created = true;
+            try {
+                Files.createSymbolicLink(target, target.getParent().relativize(blob));
+            } catch (FileAlreadyExistsException e) {
+                // Re-uploaded since, the sharded link is current
+                created = false;
+            }
+            if (!Files.deleteIfExists(file) && created) {
+                // Released while it was being moved: do not resurrect it
+                Files.deleteIfExists(target);
+            }
+        } else {
+            if (Files.exists(target, LinkOption.NOFOLLOW_LINKS)) {
+                // Re-uploaded since, the sharded file is current
+                Files.deleteIfExists(file);
+            } else {
+                Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+        hotMediaCache.invalidate(file);
+    }
+
+    private List<Path> migratableDirectories() throws IOException {
+        List<Path> directories = new ArrayList<>(uploadPathResolver.categoryDirectories());
+        directories.addAll(uploadPathResolver.variantDirectories());
+        return directories;
+    }
+
+    private long countFlatFiles() throws IOException {
+        long count = 0;
+        for (Path dir : migratableDirectories()) {
+            try (Stream<Path> children = Files.list(dir)) {
+                count += children.filter(UploadPathResolver::isFlatFile).count();
+            }
+        }
+        return count;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class MigrationResult {
+        private final int moved;
+        private final int failed;
+        private final long remaining;
+    }
+}
@@ -107,4 +107,14 @@ public class DateTimeUtil {
     public static LocalDateTime getCurrentTimeForDatabase() {
         return LocalDateTime.now(KOLKATA_ZONE);
     }
+    
+    /**
+     * Converts a LocalDateTime stored by getCurrentTimeForDatabase() to epoch milliseconds
+     * 
+     * @param dateTime the LocalDateTime in Asia/Kolkata timezone
+     * @return milliseconds since the epoch
+     */
+    public static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(KOLKATA_ZONE).toInstant().toEpochMilli();
+    }
 }
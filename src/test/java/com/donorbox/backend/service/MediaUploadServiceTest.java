@@ -0,0 +1,38 @@
+package com.donorbox.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MediaUploadServiceTest {
+
+    private final MediaUploadService service = new MediaUploadService(null, null, null, null);
+
+    @Test
+    void acceptsPlainCategoryNames() {
+        assertTrue(service.isValidCategory("causes"));
+        assertTrue(service.isValidCategory("blog-images"));
+        assertTrue(service.isValidCategory("event_2024"));
+    }
+
+    @Test
+    void rejectsUnsafeCategoryNames() {
+        assertFalse(service.isValidCategory(null));
+        assertFalse(service.isValidCategory(""));
+        assertFalse(service.isValidCategory("../etc"));
+        assertFalse(service.isValidCategory("a/b"));
+        assertFalse(service.isValidCategory("x".repeat(65)));
+    }
+
+    @Test
+    void rejectsInternalStorageDirectories() {
+        for (String dir : UploadPathResolver.INTERNAL_DIRS) {
+            assertFalse(service.isValidCategory(dir), dir);
+        }
+        assertFalse(service.isValidCategory("blobs"));
+        assertFalse(service.isValidCategory("variants"));
+        assertFalse(service.isValidCategory("Blobs"));
+        assertFalse(service.isValidCategory("VARIANTS"));
+    }
+}
@@ -0,0 +1,157 @@
+package com.donorbox.backend.service;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.BucketAlreadyOwnedByYouException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs {@link S3BlobStore} against a real S3-compatible server. Skipped unless S3_TEST_ENDPOINT
+ * is set, e.g. for a local MinIO:
+ * <pre>
+ * docker run -p 9000:9000 minio/minio server /data
+ * S3_TEST_ENDPOINT=http://localhost:9000 mvn test -Dtest=S3BlobStoreIntegrationTest
+ * </pre>
+ * S3_TEST_BUCKET (default donorbox-test) is created if missing; S3_TEST_ACCESS_KEY and
+ * S3_TEST_SECRET_KEY default to MinIO's minioadmin credentials.
+ */
+@EnabledIfEnvironmentVariable(named = "S3_TEST_ENDPOINT", matches = ".+")
+class S3BlobStoreIntegrationTest {
+
+    private static final byte[] CONTENT = "0123456789abcdefghijklmnopqrstuvwxyz".getBytes(StandardCharsets.US_ASCII);
+
+    private static S3BlobStore store;
+    private static String keyPrefix;
+
+    @BeforeAll
+    static void createStore() {
+        String endpoint = System.getenv("S3_TEST_ENDPOINT");
+        String bucket = env("S3_TEST_BUCKET", "donorbox-test");
+        String accessKey = env("S3_TEST_ACCESS_KEY", "minioadmin");
+        String secretKey = env("S3_TEST_SECRET_KEY", "minioadmin");
+        createBucket(endpoint, bucket, accessKey, secretKey);
+
+        // Each run writes under its own prefix, so runs never see each other's objects
+        keyPrefix = "it-" + UUID.randomUUID();
+        store = new S3BlobStore();
+        ReflectionTestUtils.setField(store, "bucket", bucket);
+        ReflectionTestUtils.setField(store, "region", "us-east-1");
+        ReflectionTestUtils.setField(store, "endpoint", endpoint);
+        ReflectionTestUtils.setField(store, "pathStyleAccess", true);
+        ReflectionTestUtils.setField(store, "accessKey", accessKey);
+        ReflectionTestUtils.setField(store, "secretKey", secretKey);
+        ReflectionTestUtils.setField(store, "keyPrefix", keyPrefix);
+        store.init();
+    }
+
+    @AfterAll
+    static void closeStore() {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    @Test
+    void putFileThenStatGetAndDelete(@TempDir Path dir) throws IOException {
+        Path source = Files.write(dir.resolve("blob"), CONTENT);
+        String key = "blobs/ab/cd/" + UUID.randomUUID();
+
+        store.put(key, source, "text/plain");
+
+        BlobStore.BlobInfo info = store.stat(key).orElseThrow();
+        assertEquals(CONTENT.length, info.getSize());
+        try (InputStream in = store.get(key)) {
+            assertArrayEquals(CONTENT, in.readAllBytes());
+        }
+        try (InputStream in = store.get(key, 10, 15)) {
+            assertArrayEquals("abcdef".getBytes(StandardCharsets.US_ASCII), in.readAllBytes());
+        }
+        assertTrue(store.localPath(key).isEmpty());
+
+        assertTrue(store.delete(key));
+        assertTrue(store.stat(key).isEmpty());
+        assertThrows(NoSuchFileException.class, () -> store.get(key));
+    }
+
+    @Test
+    void putIsIdempotentForContentAddressedKeys() throws IOException {
+        String key = "blobs/ef/01/" + UUID.randomUUID();
+
+        store.put(key, new ByteArrayInputStream(CONTENT), CONTENT.length, null);
+        store.put(key, new ByteArrayInputStream(CONTENT), CONTENT.length, null);
+
+        try (InputStream in = store.get(key)) {
+            assertArrayEquals(CONTENT, in.readAllBytes());
+        }
+        store.delete(key);
+    }
+
+    @Test
+    void missingBlobHasNoStatAndDeletesAsAbsent() throws IOException {
+        String key = "blobs/00/00/" + UUID.randomUUID();
+        assertTrue(store.stat(key).isEmpty());
+        assertFalse(store.delete(key));
+    }
+
+    @Test
+    void presignedUrlServesTheBlob() throws IOException {
+        String key = "blobs/12/34/" + UUID.randomUUID();
+        store.put(key, new ByteArrayInputStream(CONTENT), CONTENT.length, "text/plain");
+
+        URI url = store.presignedGetUrl(key, Duration.ofMinutes(5), "text/plain", "inline").orElseThrow();
+        HttpURLConnection connection = (HttpURLConnection) url.toURL().openConnection();
+        try (InputStream in = connection.getInputStream()) {
+            assertEquals(200, connection.getResponseCode());
+            assertArrayEquals(CONTENT, in.readAllBytes());
+        } finally {
+            connection.disconnect();
+            store.delete(key);
+        }
+    }
+
+    private static void createBucket(String endpoint, String bucket, String accessKey, String secretKey) {
+        try (S3Client admin = S3Client.builder()
+                .httpClientBuilder(UrlConnectionHttpClient.builder())
+                .region(Region.US_EAST_1)
+                .endpointOverride(URI.create(endpoint))
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey)))
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+                .build()) {
+            admin.createBucket(request -> request.bucket(bucket));
+        } catch (BucketAlreadyOwnedByYouException e) {
+            // Left over from an earlier run
+        }
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null && !value.isBlank() ? value : defaultValue;
+    }
+}